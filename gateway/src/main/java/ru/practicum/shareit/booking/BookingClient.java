@@ -1,62 +1,74 @@
 package ru.practicum.shareit.booking;
 
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
 import ru.practicum.shareit.booking.dto.BookingStatus;
 import ru.practicum.shareit.client.BaseClient;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
 public class BookingClient extends BaseClient {
 
     private static final String API_PREFIX = "/bookings";
+    private static final String ROUTE = "bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}")String url, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}")String url, WebClient.Builder builder,
+                         CircuitBreakerRegistry circuitBreakers, BulkheadRegistry bulkheads) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory("http://server:9090" + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .baseUrl("http://server:9090" + API_PREFIX)
+                        .build(),
+                circuitBreakers.circuitBreaker(ROUTE),
+                bulkheads.bulkhead(ROUTE)
         );
     }
 
-    public ResponseEntity<Object> getBookings(long userId, BookingStatus state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+    public Mono<ResponseEntity<Object>> getBookings(long userId, BookingStatus state, Integer from, Integer size,
+                                              String cursor) {
+        return get(pagingQuery(cursor), userId, pagingParameters(state, from, size, cursor));
     }
 
-    public ResponseEntity<Object> getAllBookingsByOwner(long userId, BookingStatus state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+    public Mono<ResponseEntity<Object>> getAllBookingsByOwner(long userId, BookingStatus state, Integer from, Integer size,
+                                                        String cursor) {
+        return get("/owner" + pagingQuery(cursor), userId, pagingParameters(state, from, size, cursor));
     }
 
+    private static String pagingQuery(String cursor) {
+        String query = "?state={state}&from={from}&size={size}";
+        return cursor == null ? query : query + "&cursor={cursor}";
+    }
+
+    private static Map<String, Object> pagingParameters(BookingStatus state, Integer from, Integer size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state.name());
+        parameters.put("from", from);
+        parameters.put("size", size);
+        if (cursor != null) {
+            parameters.put("cursor", cursor);
+        }
+        return parameters;
+    }
 
-    public ResponseEntity<Object> createBooking(long userId, BookItemRequestDto requestDto) {
+    public Mono<ResponseEntity<Object>> createBooking(long userId, BookItemRequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> ownerDecision(long bookingId, long userId, boolean approved) {
+    public Mono<ResponseEntity<Object>> ownerDecision(long bookingId, long userId, boolean approved) {
         Map<String, Object> parameters = Map.of("approved", approved);
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
     }
 
-    public ResponseEntity<Object> getBooking(long userId, Long bookingId) {
+    public Mono<ResponseEntity<Object>> getBooking(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 }
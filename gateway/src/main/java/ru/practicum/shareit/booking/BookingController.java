@@ -13,6 +13,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
 import ru.practicum.shareit.booking.dto.BookingStatus;
 import ru.practicum.shareit.exception.BadRequestException;
@@ -32,29 +33,31 @@ public class BookingController {
     private final BookingClient bookingClient;
 
     @GetMapping
-    public ResponseEntity<Object> getAllBookingsByBooker(@RequestHeader("X-Sharer-User-Id") long userId,
+    public Mono<ResponseEntity<Object>> getAllBookingsByBooker(@RequestHeader("X-Sharer-User-Id") long userId,
                                                          @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
                                                          @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                         @Positive @RequestParam(name = "size", defaultValue = "100") Integer size) {
+                                                         @Positive @RequestParam(name = "size", defaultValue = "100") Integer size,
+                                                         @RequestParam(name = "cursor", required = false) String cursor) {
         BookingStatus state = checkState(stateParam);
         checkPaging(from, size);
-        log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getBookings(userId, state, from, size);
+        log.info("Get booking with state {}, userId={}, from={}, size={}, cursor={}", stateParam, userId, from, size, cursor);
+        return bookingClient.getBookings(userId, state, from, size, cursor);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getAllBookingsByOwner(@RequestParam(name = "state", defaultValue = "ALL") String stateParam,
+    public Mono<ResponseEntity<Object>> getAllBookingsByOwner(@RequestParam(name = "state", defaultValue = "ALL") String stateParam,
                                                         @RequestHeader("X-Sharer-User-Id") long userId,
                                                         @PositiveOrZero @RequestParam(required = false, defaultValue = "0") Integer from,
-                                                        @Positive @RequestParam(required = false, defaultValue = "100") Integer size) {
+                                                        @Positive @RequestParam(required = false, defaultValue = "100") Integer size,
+                                                        @RequestParam(required = false) String cursor) {
         BookingStatus state = checkState(stateParam);
         checkPaging(from, size);
-        log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getAllBookingsByOwner(userId, state, from, size);
+        log.info("Get booking with state {}, userId={}, from={}, size={}, cursor={}", stateParam, userId, from, size, cursor);
+        return bookingClient.getAllBookingsByOwner(userId, state, from, size, cursor);
     }
 
     @PostMapping
-    public ResponseEntity<Object> createBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+    public Mono<ResponseEntity<Object>> createBooking(@RequestHeader("X-Sharer-User-Id") long userId,
                                                 @RequestBody @Valid BookItemRequestDto requestDto) {
         validateDates(requestDto.getStart(), requestDto.getEnd());
         log.info("Creating booking {}, userId={}", requestDto, userId);
@@ -62,14 +65,14 @@ public class BookingController {
     }
 
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+    public Mono<ResponseEntity<Object>> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
                                              @PathVariable Long bookingId) {
         log.info("Get booking {}, userId={}", bookingId, userId);
         return bookingClient.getBooking(userId, bookingId);
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> ownerDecision(@PathVariable long bookingId,
+    public Mono<ResponseEntity<Object>> ownerDecision(@PathVariable long bookingId,
                                                 @RequestHeader("X-Sharer-User-Id") long userId,
                                                 @RequestParam boolean approved) {
         log.info("Patch booking by owner decision bookingId={}, userId={}, approved={}", bookingId, userId, approved);
@@ -1,94 +1,206 @@
 package ru.practicum.shareit.client;
 
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
 import org.springframework.http.*;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class BaseClient {
-    protected final RestTemplate rest;
+    private static final int ETAG_CACHE_SIZE = 1000;
 
-    public BaseClient(RestTemplate rest) {
+    // Заголовки соединения шлюза с сервером (RFC 7230, 6.1): клиенту уходят все остальные
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+            "connection", "keep-alive", "proxy-authenticate", "proxy-authorization",
+            "te", "trailer", "transfer-encoding", "upgrade");
+
+    protected final WebClient rest;
+
+    // Маршрут к серверу (users, items, ...) ограничен по числу одновременных запросов, а при
+    // отказах сервера разрывается и сразу отвечает 503, не дожидаясь таймаута
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+
+    // Последние GET-ответы сервера с ETag: повторный запрос уходит с If-None-Match,
+    // на 304 отдаём сохранённое тело. 304 клиенту Spring MVC отдаёт сам по ETag ответа
+    private final Map<String, CachedResponse> etagCache = Collections.synchronizedMap(
+            new LinkedHashMap<String, CachedResponse>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                    return size() > ETAG_CACHE_SIZE;
+                }
+            });
+
+    // Одинаковые GET-запросы, пришедшие пока первый ещё ждёт ответа сервера, к серверу не уходят:
+    // все получают ответ первого. Доля схлопнутых - gateway.single.flight{result=collapsed} ко всем
+    private final Map<String, Mono<ResponseEntity<Object>>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter upstreamRequests;
+    private final Counter collapsedRequests;
+
+    public BaseClient(WebClient rest, CircuitBreaker circuitBreaker, Bulkhead bulkhead) {
         this.rest = rest;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+        String client = getClass().getSimpleName();
+        this.upstreamRequests = Metrics.counter("gateway.single.flight", "client", client, "result", "upstream");
+        this.collapsedRequests = Metrics.counter("gateway.single.flight", "client", client, "result", "collapsed");
+        Metrics.gaugeMapSize("gateway.single.flight.in.flight", Tags.of("client", client), inFlight);
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    protected Mono<ResponseEntity<Object>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected Mono<ResponseEntity<Object>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Object>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+    // Запрос к серверу не занимает поток: ответ приходит в пул Reactor Netty, а Spring MVC
+    // дописывает его клиенту асинхронно
+    private <T> Mono<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        String cacheKey = method == HttpMethod.GET ? cacheKey(path, userId, parameters) : null;
+        CachedResponse cached = cacheKey == null ? null : etagCache.get(cacheKey);
+        HttpHeaders headers = defaultHeaders(userId);
+        if (cached != null) {
+            headers.setIfNoneMatch(cached.etag);
+        }
 
-        ResponseEntity<Object> shareitServerResponse;
-        try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+        WebClient.RequestBodySpec request = rest.method(method)
+                .uri(path, parameters != null ? parameters : Collections.emptyMap())
+                .headers(requestHeaders -> requestHeaders.addAll(headers));
+        if (body != null) {
+            request.bodyValue(body);
+        }
+        // Тело ответа сервера не разбираем: байты вместе с Content-Type уходят клиенту как есть
+        Mono<ResponseEntity<Object>> exchange = request.exchangeToMono(response -> response.toEntity(byte[].class))
+                .map(shareitServerResponse -> cacheKey == null
+                        ? shareitServerResponse
+                        : revalidate(cacheKey, cached, shareitServerResponse))
+                .map(BaseClient::prepareGatewayResponse)
+                .flatMap(BaseClient::failOnServerError)
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .onErrorResume(ServerErrorResponse.class, e -> Mono.just(e.response));
+        return cacheKey == null ? exchange : singleFlight(cacheKey, exchange);
+    }
+
+    private Mono<ResponseEntity<Object>> singleFlight(String key, Mono<ResponseEntity<Object>> exchange) {
+        return Mono.defer(() -> {
+            AtomicReference<Mono<ResponseEntity<Object>>> call = new AtomicReference<>();
+            call.set(exchange
+                    .doFinally(signal -> inFlight.remove(key, call.get()))
+                    .share());
+            Mono<ResponseEntity<Object>> running = inFlight.putIfAbsent(key, call.get());
+            if (running != null) {
+                collapsedRequests.increment();
+                return running;
             }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            upstreamRequests.increment();
+            return call.get();
+        });
+    }
+
+    // 5xx сервера засчитывается предохранителю как отказ, клиенту ответ уходит как есть
+    private static Mono<ResponseEntity<Object>> failOnServerError(ResponseEntity<Object> response) {
+        if (response.getStatusCode().is5xxServerError()) {
+            return Mono.error(new ServerErrorResponse(response));
+        }
+        return Mono.just(response);
+    }
+
+    private ResponseEntity<byte[]> revalidate(String cacheKey, @Nullable CachedResponse cached,
+                                              ResponseEntity<byte[]> response) {
+        if (cached != null && response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            // Заголовки 304 обновляют сохранённые (например, X-Next-Cursor), длина остаётся от тела
+            HttpHeaders headers = new HttpHeaders();
+            headers.addAll(cached.headers);
+            HttpHeaders fresh = passthroughHeaders(response.getHeaders());
+            fresh.remove(HttpHeaders.CONTENT_LENGTH);
+            headers.putAll(fresh);
+            return ResponseEntity.ok().headers(headers).body(cached.body);
         }
-        return prepareGatewayResponse(shareitServerResponse);
+        String etag = response.getHeaders().getETag();
+        if (response.getStatusCode().is2xxSuccessful() && etag != null && response.hasBody()) {
+            etagCache.put(cacheKey, new CachedResponse(etag, passthroughHeaders(response.getHeaders()),
+                    response.getBody()));
+        } else {
+            etagCache.remove(cacheKey);
+        }
+        return response;
+    }
+
+    private static String cacheKey(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return userId + " " + path + (parameters == null ? "" : " " + new TreeMap<>(parameters));
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -101,12 +213,9 @@ public class BaseClient {
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
-
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<byte[]> response) {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode())
+                .headers(passthroughHeaders(response.getHeaders()));
 
         if (response.hasBody()) {
             return responseBuilder.body(response.getBody());
@@ -114,4 +223,38 @@ public class BaseClient {
 
         return responseBuilder.build();
     }
+
+    // Служебные заголовки соединения с сервером клиенту не передаём, в том числе перечисленные в Connection
+    private static HttpHeaders passthroughHeaders(HttpHeaders serverHeaders) {
+        Set<String> hopByHop = new HashSet<>(HOP_BY_HOP_HEADERS);
+        serverHeaders.getConnection().forEach(name -> hopByHop.add(name.toLowerCase(Locale.ROOT)));
+        HttpHeaders headers = new HttpHeaders();
+        serverHeaders.forEach((name, values) -> {
+            if (!hopByHop.contains(name.toLowerCase(Locale.ROOT))) {
+                headers.put(name, values);
+            }
+        });
+        return headers;
+    }
+
+    private static class CachedResponse {
+        private final String etag;
+        private final HttpHeaders headers;
+        private final byte[] body;
+
+        private CachedResponse(String etag, HttpHeaders headers, byte[] body) {
+            this.etag = etag;
+            this.headers = headers;
+            this.body = body;
+        }
+    }
+
+    private static class ServerErrorResponse extends RuntimeException {
+        private final ResponseEntity<Object> response;
+
+        private ServerErrorResponse(ResponseEntity<Object> response) {
+            super("Server responded with " + response.getStatusCode(), null, false, false);
+            this.response = response;
+        }
+    }
 }
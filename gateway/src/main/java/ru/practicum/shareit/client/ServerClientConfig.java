@@ -0,0 +1,49 @@
+package ru.practicum.shareit.client;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+// Один пул соединений на все клиенты гейтвея. WebClient.Builder из Spring Boot
+// подхватывает бин коннектора сам, метрики пула уходят в actuator
+// (reactor.netty.connection.provider.*)
+@Configuration
+@EnableConfigurationProperties(ServerClientProperties.class)
+public class ServerClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider serverConnectionProvider(ServerClientProperties properties) {
+        return ConnectionProvider.builder("shareit-server")
+                .maxConnections(properties.getMaxConnections())
+                .pendingAcquireMaxCount(properties.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(properties.getPendingAcquireTimeout())
+                .maxIdleTime(properties.getMaxIdleTime())
+                .maxLifeTime(properties.getMaxLifeTime())
+                .evictInBackground(properties.getEvictionInterval())
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public ReactorClientHttpConnector serverClientHttpConnector(ConnectionProvider serverConnectionProvider,
+                                                                ServerClientProperties properties) {
+        HttpClient httpClient = HttpClient.create(serverConnectionProvider)
+                .keepAlive(true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getResponseTimeout());
+        return new ReactorClientHttpConnector(httpClient);
+    }
+
+    // Тело ответа делят схлопнутые запросы и кэш ETag, поэтому оно буферизуется; предел буфера
+    // задаём явно, иначе WebClient отказывает на ответах больше 256 КБ
+    @Bean
+    public WebClientCustomizer serverWebClientCustomizer(ServerClientProperties properties) {
+        int maxResponseSize = (int) properties.getMaxResponseSize().toBytes();
+        return builder -> builder.codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(maxResponseSize));
+    }
+}
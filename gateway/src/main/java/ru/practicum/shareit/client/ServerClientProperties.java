@@ -0,0 +1,38 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+// Настройки общего пула соединений гейтвея с сервером
+@ConfigurationProperties(prefix = "shareit-server.pool")
+@Getter
+@Setter
+public class ServerClientProperties {
+
+    // Соединений к серверу одновременно
+    private int maxConnections = 200;
+
+    // Запросов, ждущих свободное соединение
+    private int pendingAcquireMaxCount = 1000;
+
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+
+    // Простаивающее соединение закрывается раньше, чем сервер оборвёт keep-alive
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+
+    private Duration maxLifeTime = Duration.ofMinutes(5);
+
+    // Как часто пул сам закрывает простаивающие и устаревшие соединения
+    private Duration evictionInterval = Duration.ofSeconds(30);
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    private Duration responseTimeout = Duration.ofSeconds(10);
+
+    // Наибольшее тело ответа сервера: ответ собирается в памяти целиком
+    private DataSize maxResponseSize = DataSize.ofMegabytes(16);
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.exception;
+
+import lombok.Getter;
+
+@Getter
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String error, long retryAfterSeconds) {
+        super(error);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -1,50 +1,68 @@
 package ru.practicum.shareit.item;
 
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 @Service
 public class ItemClient extends BaseClient {
 
     private static final String API_PREFIX = "/items";
+    private static final String ROUTE = "items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}")String url, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}")String url, WebClient.Builder builder,
+                      CircuitBreakerRegistry circuitBreakers, BulkheadRegistry bulkheads) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory("http://server:9090" + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .baseUrl("http://server:9090" + API_PREFIX)
+                        .build(),
+                circuitBreakers.circuitBreaker(ROUTE),
+                bulkheads.bulkhead(ROUTE)
         );
     }
 
-    public ResponseEntity<Object> createItem(ItemDto itemDto, long userId) {
+    public Mono<ResponseEntity<Object>> createItem(ItemDto itemDto, long userId) {
         return post("", userId, itemDto);
     }
 
-    public ResponseEntity<Object> updateItem(ItemDto itemDto, long itemId, long userId) {
+    public Mono<ResponseEntity<Object>> createItems(List<ItemDto> itemDtos, long userId) {
+        return post("/batch", userId, itemDtos);
+    }
+
+    public Mono<ResponseEntity<Object>> updateItem(ItemDto itemDto, long itemId, long userId) {
         return patch("/" + itemId, userId, itemDto);
     }
 
-    public ResponseEntity<Object> deleteItem(long itemId) {
+    public Mono<ResponseEntity<Object>> deleteItem(long itemId) {
         return delete("/" + itemId);
     }
 
-    public ResponseEntity<Object> findItemById(long itemId, long userId) {
+    public Mono<ResponseEntity<Object>> findItemById(long itemId, long userId) {
         return get("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> findAllItemsByUserId(long userId, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getItemAvailability(long itemId, long userId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to
+        );
+        return get("/" + itemId + "/availability?from={from}&to={to}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> findAllItemsByUserId(long userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
@@ -52,7 +70,7 @@ public class ItemClient extends BaseClient {
         return get("/?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> searchItemsByNameAndDescription(String text, long userId, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> searchItemsByNameAndDescription(String text, long userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "text", text,
                 "from", from,
@@ -61,7 +79,7 @@ public class ItemClient extends BaseClient {
         return get("/search?text={text}&from={from}&size={size}", userId,parameters);
     }
 
-    public ResponseEntity<Object> postComment(long itemId, long userId, CommentDto commentDto) {
+    public Mono<ResponseEntity<Object>> postComment(long itemId, long userId, CommentDto commentDto) {
         return post("/" + itemId + "/comment", userId, commentDto);
     }
 }
@@ -2,16 +2,23 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Controller
 @RequestMapping(path = "/items")
@@ -20,17 +27,27 @@ import javax.validation.constraints.PositiveOrZero;
 @Validated
 public class ItemController {
 
+    private static final int MAX_BATCH_SIZE = 1000;
+
     private final ItemClient itemClient;
 
     @PostMapping
-    public ResponseEntity<Object> createItem(@Valid @RequestBody ItemDto itemDto,
+    public Mono<ResponseEntity<Object>> createItem(@Valid @RequestBody ItemDto itemDto,
                                              @RequestHeader("X-Sharer-User-Id") long userId) {
         log.info("Create item with itemDto {}, userId={}", itemDto, userId);
         return itemClient.createItem(itemDto, userId);
     }
 
+    // Пакет проверяется целиком до отправки на сервер
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<Object>> createItems(@RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE) List<@Valid ItemDto> itemDtos,
+                                                    @RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("Create {} items, userId={}", itemDtos.size(), userId);
+        return itemClient.createItems(itemDtos, userId);
+    }
+
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> updateItem(@RequestBody ItemDto itemDto,
+    public Mono<ResponseEntity<Object>> updateItem(@RequestBody ItemDto itemDto,
                                              @PathVariable long itemId,
                                              @RequestHeader("X-Sharer-User-Id") long userId) {
         log.info("Update item with itemDto {}, itemId={}, userId={}", itemDto, itemId, userId);
@@ -38,20 +55,32 @@ public class ItemController {
     }
 
     @DeleteMapping("/{itemId}")
-    public ResponseEntity<Object> deleteItem(@PathVariable long itemId) {
+    public Mono<ResponseEntity<Object>> deleteItem(@PathVariable long itemId) {
         log.info("Delete item with itemId={}", itemId);
         return itemClient.deleteItem(itemId);
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> findItemById(@PathVariable long itemId,
+    public Mono<ResponseEntity<Object>> findItemById(@PathVariable long itemId,
                                                @RequestHeader("X-Sharer-User-Id") long userId) {
         log.info("Get item with itemId={}, userId={}", itemId, userId);
         return itemClient.findItemById(itemId, userId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public Mono<ResponseEntity<Object>> getItemAvailability(@PathVariable long itemId,
+                                                      @RequestHeader("X-Sharer-User-Id") long userId,
+                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new BadRequestException("Availability wrong Time");
+        }
+        log.info("Get availability of item with itemId={}, userId={}, from={}, to={}", itemId, userId, from, to);
+        return itemClient.getItemAvailability(itemId, userId, from, to);
+    }
+
     @GetMapping
-    public ResponseEntity<Object> findAllItemsByUserId(@RequestHeader("X-Sharer-User-Id") long userId,
+    public Mono<ResponseEntity<Object>> findAllItemsByUserId(@RequestHeader("X-Sharer-User-Id") long userId,
                                                        @PositiveOrZero @RequestParam(required = false, defaultValue = "0") Integer from,
                                                        @Positive @RequestParam(required = false, defaultValue = "100") Integer size) {
         log.info("Get all items by userId={}, from={}, size={}", userId, from, size);
@@ -59,7 +88,7 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItemsByNameAndDescription(@RequestHeader("X-Sharer-User-Id") long userId,
+    public Mono<ResponseEntity<Object>> searchItemsByNameAndDescription(@RequestHeader("X-Sharer-User-Id") long userId,
                                                                   @RequestParam String text,
                                                                   @PositiveOrZero @RequestParam(required = false, defaultValue = "0") Integer from,
                                                                   @Positive @RequestParam(required = false, defaultValue = "100") Integer size) {
@@ -68,7 +97,7 @@ public class ItemController {
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> postComment(@PathVariable long itemId,
+    public Mono<ResponseEntity<Object>> postComment(@PathVariable long itemId,
                                               @RequestHeader("X-Sharer-User-Id") long userId,
                                               @Valid @RequestBody CommentDto commentDto) {
         log.info("Post comment {}, userId={}, itemId={}", commentDto, userId, itemId);
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.ratelimit;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.practicum.shareit.exception.TooManyRequestsException;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Проверяет лимит до вызова контроллера, то есть до того, как запрос уйдёт на сервер
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    private final List<LimitedEndpoint> endpoints = new ArrayList<>();
+
+    public RateLimitInterceptor(RateLimitProperties properties) {
+        for (RateLimitProperties.Rule rule : properties.getRules()) {
+            endpoints.add(new LimitedEndpoint(rule.getMethod(), rule.getPath(),
+                    new TokenBuckets(rule.getCapacity(), rule.getRefillPerSecond())));
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Повторный проход после асинхронного ответа гейтвея уже посчитан
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        String userId = request.getHeader(USER_ID_HEADER);
+        TokenBuckets buckets = findBuckets(request);
+        if (userId == null || buckets == null) {
+            return true;
+        }
+        long waitNanos;
+        try {
+            waitNanos = buckets.tryAcquire(Long.parseLong(userId), System.nanoTime());
+        } catch (NumberFormatException e) {
+            return true;
+        }
+        if (waitNanos > 0) {
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            throw new TooManyRequestsException("Too many requests from userId=" + userId, retryAfter);
+        }
+        return true;
+    }
+
+    private TokenBuckets findBuckets(HttpServletRequest request) {
+        // Spring MVC кладёт сюда PathPattern или строку, в зависимости от способа сопоставления путей
+        String pattern = String.valueOf(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE));
+        HttpMethod method = HttpMethod.resolve(request.getMethod());
+        for (LimitedEndpoint endpoint : endpoints) {
+            if (endpoint.path.equals(pattern) && (endpoint.method == null || endpoint.method == method)) {
+                return endpoint.buckets;
+            }
+        }
+        return null;
+    }
+
+    private static class LimitedEndpoint {
+        private final HttpMethod method;
+        private final String path;
+        private final TokenBuckets buckets;
+
+        private LimitedEndpoint(HttpMethod method, String path, TokenBuckets buckets) {
+            this.method = method;
+            this.path = path;
+            this.buckets = buckets;
+        }
+    }
+}
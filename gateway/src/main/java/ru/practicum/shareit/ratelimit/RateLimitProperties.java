@@ -0,0 +1,35 @@
+package ru.practicum.shareit.ratelimit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.HttpMethod;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Лимиты запросов одного пользователя (X-Sharer-User-Id) к отдельным эндпоинтам гейтвея
+@ConfigurationProperties(prefix = "shareit-gateway.rate-limit")
+@Getter
+@Setter
+public class RateLimitProperties {
+
+    private List<Rule> rules = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Rule {
+
+        // null - любой метод
+        private HttpMethod method;
+
+        // Шаблон пути как в маппинге контроллера, например /items/{itemId}
+        private String path;
+
+        // Сколько запросов подряд можно сделать с полной корзиной
+        private int capacity;
+
+        // Скорость пополнения корзины
+        private double refillPerSecond;
+    }
+}
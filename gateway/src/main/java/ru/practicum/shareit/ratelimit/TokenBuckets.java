@@ -0,0 +1,98 @@
+package ru.practicum.shareit.ratelimit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Корзины токенов одного правила, по одной на пользователя. Корзина хранится одним числом -
+// моментом (System.nanoTime), когда она снова станет полной, и меняется только через CAS.
+// Пользователи разнесены по независимым сегментам, чтобы очистка и рост таблиц не мешали друг другу
+class TokenBuckets {
+
+    private static final int SHARDS = 16;
+    private static final int CLEANUP_THRESHOLD = 4096;
+    private static final long MIN_CLEANUP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long NEVER = Long.MIN_VALUE;
+
+    // Время пополнения одного токена и всей корзины
+    private final long tokenNanos;
+    private final long capacityNanos;
+
+    // Не полная сейчас корзина станет полной не позже чем через время пополнения всей корзины,
+    // поэтому чаще очищать сегмент бесполезно: при множестве активных пользователей каждый проход
+    // перебирал бы тысячи корзин, ничего не удаляя
+    private final long cleanupIntervalNanos;
+
+    private final List<Map<Long, AtomicLong>> shards = new ArrayList<>(SHARDS);
+
+    // По сегменту: момент, раньше которого его не очищаем
+    private final AtomicLongArray nextCleanupAt = new AtomicLongArray(SHARDS);
+
+    TokenBuckets(int capacity, double refillPerSecond) {
+        this.tokenNanos = (long) (1_000_000_000L / refillPerSecond);
+        this.capacityNanos = tokenNanos * capacity;
+        this.cleanupIntervalNanos = Math.max(capacityNanos, MIN_CLEANUP_INTERVAL_NANOS);
+        for (int i = 0; i < SHARDS; i++) {
+            shards.add(new ConcurrentHashMap<>());
+            nextCleanupAt.set(i, NEVER);
+        }
+    }
+
+    // 0 - токен выдан, иначе сколько наносекунд ждать следующего
+    long tryAcquire(long userId, long now) {
+        int index = Long.hashCode(userId * 0x9E3779B97F4A7C15L) & (SHARDS - 1);
+        Map<Long, AtomicLong> shard = shards.get(index);
+        if (shard.size() > CLEANUP_THRESHOLD && startCleanup(index, now)) {
+            cleanup(shard, now);
+        }
+        while (true) {
+            AtomicLong bucket = shard.computeIfAbsent(userId, id -> new AtomicLong(now));
+            long waitNanos = take(bucket, now);
+            // Очистка могла убрать корзину, пока из неё брали токен: тогда берём из той, что сейчас в таблице
+            if (shard.get(userId) == bucket) {
+                return waitNanos;
+            }
+        }
+    }
+
+    // Сколько корзин сейчас хранится
+    int size() {
+        return shards.stream().mapToInt(Map::size).sum();
+    }
+
+    private long take(AtomicLong bucket, long now) {
+        while (true) {
+            long fullAt = bucket.get();
+            long nextFullAt = Math.max(fullAt - now, 0) + now + tokenNanos;
+            long excess = nextFullAt - now - capacityNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (bucket.compareAndSet(fullAt, nextFullAt)) {
+                return 0;
+            }
+        }
+    }
+
+    // Очистку сегмента начинает один поток и не чаще раза в cleanupIntervalNanos
+    private boolean startCleanup(int index, long now) {
+        long next = nextCleanupAt.get(index);
+        return (next == NEVER || now - next >= 0)
+                && nextCleanupAt.compareAndSet(index, next, now + cleanupIntervalNanos);
+    }
+
+    // Полная корзина ничем не отличается от отсутствующей. Удаляем только ту самую корзину,
+    // которую проверили: новую, созданную после проверки, не трогаем
+    private static void cleanup(Map<Long, AtomicLong> shard, long now) {
+        for (Map.Entry<Long, AtomicLong> entry : shard.entrySet()) {
+            AtomicLong bucket = entry.getValue();
+            if (bucket.get() - now <= 0) {
+                shard.remove(entry.getKey(), bucket);
+            }
+        }
+    }
+}
@@ -1,12 +1,13 @@
 package ru.practicum.shareit.request;
 
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
@@ -16,22 +17,25 @@ import java.util.Map;
 public class RequestClient extends BaseClient {
 
     private static final String API_PREFIX = "/requests";
+    private static final String ROUTE = "requests";
 
     @Autowired
-    public RequestClient(@Value("${shareit-server.url}")String url, RestTemplateBuilder builder) {
+    public RequestClient(@Value("${shareit-server.url}")String url, WebClient.Builder builder,
+                         CircuitBreakerRegistry circuitBreakers, BulkheadRegistry bulkheads) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory("http://server:9090" + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .baseUrl("http://server:9090" + API_PREFIX)
+                        .build(),
+                circuitBreakers.circuitBreaker(ROUTE),
+                bulkheads.bulkhead(ROUTE)
         );
     }
 
-    public ResponseEntity<Object> createRequest(ItemRequestDto itemRequestDto, long userId) {
+    public Mono<ResponseEntity<Object>> createRequest(ItemRequestDto itemRequestDto, long userId) {
         return post("", userId, itemRequestDto);
     }
 
-    public ResponseEntity<Object> getAllResponsesForAllRequests(long userId, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getAllResponsesForAllRequests(long userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
@@ -39,7 +43,7 @@ public class RequestClient extends BaseClient {
         return get("?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getAllRequestsOtherUsers(long userId, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getAllRequestsOtherUsers(long userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
@@ -47,7 +51,7 @@ public class RequestClient extends BaseClient {
         return get("/all?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getRequestById(long userId, long requestId) {
+    public Mono<ResponseEntity<Object>> getRequestById(long userId, long requestId) {
         return get("/" + requestId, userId);
     }
 }
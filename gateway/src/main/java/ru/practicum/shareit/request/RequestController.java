@@ -6,6 +6,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.BookingController;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
@@ -23,14 +24,14 @@ public class RequestController {
     private final RequestClient requestClient;
 
     @PostMapping
-    public ResponseEntity<Object> createRequest(@Valid @RequestBody ItemRequestDto itemRequestDto,
+    public Mono<ResponseEntity<Object>> createRequest(@Valid @RequestBody ItemRequestDto itemRequestDto,
                                                 @RequestHeader("X-Sharer-User-Id") long userId) {
         log.info("Post request {}, userId={}", itemRequestDto, userId);
         return requestClient.createRequest(itemRequestDto, userId);
     }
 
     @GetMapping()
-    public ResponseEntity<Object> getAllResponsesForAllRequests(@RequestHeader("X-Sharer-User-Id") long userId,
+    public Mono<ResponseEntity<Object>> getAllResponsesForAllRequests(@RequestHeader("X-Sharer-User-Id") long userId,
                                                                 @PositiveOrZero @RequestParam(required = false, defaultValue = "0") Integer from,
                                                                 @Positive @RequestParam(required = false, defaultValue = "100") Integer size) {
         BookingController.checkPaging(from, size);
@@ -39,7 +40,7 @@ public class RequestController {
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getAllRequestsByUserId(@RequestHeader("X-Sharer-User-Id") long userId,
+    public Mono<ResponseEntity<Object>> getAllRequestsByUserId(@RequestHeader("X-Sharer-User-Id") long userId,
                                                          @PositiveOrZero @RequestParam(required = false, defaultValue = "0") Integer from,
                                                          @Positive @RequestParam(required = false, defaultValue = "100") Integer size) {
         BookingController.checkPaging(from, size);
@@ -48,7 +49,7 @@ public class RequestController {
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getRequestById(@RequestHeader("X-Sharer-User-Id") long userId,
+    public Mono<ResponseEntity<Object>> getRequestById(@RequestHeader("X-Sharer-User-Id") long userId,
                                                  @PathVariable long requestId) {
         log.info("Get request requestId={}, userId={}", userId, requestId);
         return requestClient.getRequestById(userId, requestId);
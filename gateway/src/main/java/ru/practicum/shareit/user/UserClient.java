@@ -1,46 +1,50 @@
 package ru.practicum.shareit.user;
 
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.user.dto.UserDto;
 
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
+    private static final String ROUTE = "users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}")String url, RestTemplateBuilder builder) {
+    public UserClient(@Value("${shareit-server.url}")String url, WebClient.Builder builder,
+                      CircuitBreakerRegistry circuitBreakers, BulkheadRegistry bulkheads) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory("http://server:9090" + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .baseUrl("http://server:9090" + API_PREFIX)
+                        .build(),
+                circuitBreakers.circuitBreaker(ROUTE),
+                bulkheads.bulkhead(ROUTE)
         );
     }
 
-    public ResponseEntity<Object> createUser(UserDto userDto) {
+    public Mono<ResponseEntity<Object>> createUser(UserDto userDto) {
         return post("", userDto);
     }
 
-    public ResponseEntity<Object> updateUser(UserDto userDto, long userId) {
+    public Mono<ResponseEntity<Object>> updateUser(UserDto userDto, long userId) {
         return patch("/" + userId, userDto);
     }
 
-    public ResponseEntity<Object> deleteUser(long userId) {
+    public Mono<ResponseEntity<Object>> deleteUser(long userId) {
         return delete("/" + userId);
     }
 
-    public ResponseEntity<Object> findAllUsers() {
+    public Mono<ResponseEntity<Object>> findAllUsers() {
         return get("");
     }
 
-    public ResponseEntity<Object> findUserById(long userId) {
+    public Mono<ResponseEntity<Object>> findUserById(long userId) {
         return get("/" + userId);
     }
 }
@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import javax.validation.Valid;
@@ -19,31 +20,31 @@ public class UserController {
     private final UserClient userClient;
 
     @PostMapping
-    public ResponseEntity<Object> createUser(@Valid @RequestBody UserDto userDto) {
+    public Mono<ResponseEntity<Object>> createUser(@Valid @RequestBody UserDto userDto) {
         log.info("Creating user {}", userDto);
         return userClient.createUser(userDto);
     }
 
     @PatchMapping("/{userId}")
-    public ResponseEntity<Object> updateUser(@RequestBody UserDto userDto, @PathVariable long userId) {
+    public Mono<ResponseEntity<Object>> updateUser(@RequestBody UserDto userDto, @PathVariable long userId) {
         log.info("Update user {}, userId={}", userDto, userId);
         return userClient.updateUser(userDto, userId);
     }
 
     @DeleteMapping("/{userId}")
-    public ResponseEntity<Object> deleteUser(@PathVariable long userId) {
+    public Mono<ResponseEntity<Object>> deleteUser(@PathVariable long userId) {
         log.info("Delete user userId={}", userId);
         return userClient.deleteUser(userId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> findAllUsers() {
+    public Mono<ResponseEntity<Object>> findAllUsers() {
         log.info("Get all users");
         return userClient.findAllUsers();
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<Object> findUserById(@PathVariable long userId) {
+    public Mono<ResponseEntity<Object>> findUserById(@PathVariable long userId) {
         log.info("Get user userId={}", userId);
         return userClient.findUserById(userId);
     }
@@ -0,0 +1,150 @@
+package ru.practicum.shareit.bookingTest;
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.BookingClient;
+import ru.practicum.shareit.booking.BookingController;
+import ru.practicum.shareit.handler.ErrorHandler;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Заголовки ответа сервера доходят до клиента шлюза; сервер подменён заглушкой WebClient
+public class BookingControllerTest {
+
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String BODY = "[{\"id\":1}]";
+    private static final String ETAG = "\"0123456789\"";
+
+    private final AtomicInteger serverCalls = new AtomicInteger();
+
+    private CircuitBreakerRegistry circuitBreakers;
+
+    // Сервер не отвечает: запрос занимает место в bulkhead, пока его не отменят
+    private volatile boolean serverHangs;
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(request -> {
+            int call = serverCalls.incrementAndGet();
+            if (serverHangs) {
+                return Mono.never();
+            }
+            if (ETAG.equals(request.headers().getFirst(HttpHeaders.IF_NONE_MATCH))) {
+                return Mono.just(ClientResponse.create(HttpStatus.NOT_MODIFIED)
+                        .header(HttpHeaders.ETAG, ETAG)
+                        .header(NEXT_CURSOR_HEADER, "cursor-" + call)
+                        .build());
+            }
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .header(HttpHeaders.ETAG, ETAG)
+                    .header(NEXT_CURSOR_HEADER, "cursor-" + call)
+                    .header(HttpHeaders.CONNECTION, "keep-alive")
+                    .header(HttpHeaders.TRANSFER_ENCODING, "chunked")
+                    .body(BODY)
+                    .build());
+        });
+        circuitBreakers = CircuitBreakerRegistry.ofDefaults();
+        BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        BookingClient bookingClient = new BookingClient("http://server:9090", builder, circuitBreakers, bulkheads);
+        mvc = MockMvcBuilders.standaloneSetup(new BookingController(bookingClient))
+                .setControllerAdvice(new ErrorHandler())
+                .build();
+    }
+
+    @Test
+    public void nextCursorHeaderReachesClientTest() throws Exception {
+        // Act
+        MvcResult result = mvc.perform(get("/bookings").header("X-Sharer-User-Id", 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().json(BODY))
+                .andExpect(header().string(NEXT_CURSOR_HEADER, "cursor-1"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONNECTION))
+                .andExpect(header().doesNotExist(HttpHeaders.TRANSFER_ENCODING));
+    }
+
+    @Test
+    public void nextCursorHeaderReachesClientFromCachedResponseTest() throws Exception {
+        // Assign
+        MvcResult first = mvc.perform(get("/bookings").header("X-Sharer-User-Id", 1L)).andReturn();
+        mvc.perform(asyncDispatch(first)).andExpect(status().isOk());
+
+        // Act
+        MvcResult result = mvc.perform(get("/bookings").header("X-Sharer-User-Id", 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().json(BODY))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(header().string(NEXT_CURSOR_HEADER, "cursor-2"));
+        Assertions.assertEquals(2, serverCalls.get());
+    }
+
+    @Test
+    public void openCircuitBreakerReturnsServiceUnavailableTest() throws Exception {
+        // Assign
+        circuitBreakers.circuitBreaker("bookings").transitionToOpenState();
+
+        // Act
+        MvcResult result = mvc.perform(get("/bookings").header("X-Sharer-User-Id", 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable());
+        Assertions.assertEquals(0, serverCalls.get());
+    }
+
+    @Test
+    public void fullBulkheadReturnsServiceUnavailableTest() throws Exception {
+        // Assign
+        serverHangs = true;
+        mvc.perform(get("/bookings/owner").header("X-Sharer-User-Id", 1L))
+                .andExpect(request().asyncStarted());
+
+        // Act
+        MvcResult result = mvc.perform(get("/bookings").header("X-Sharer-User-Id", 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable());
+        Assertions.assertEquals(1, serverCalls.get());
+    }
+}
@@ -0,0 +1,241 @@
+package ru.practicum.shareit.clientTest;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.client.reactive.MockClientHttpResponse;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerClientConfig;
+import ru.practicum.shareit.client.ServerClientProperties;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// BaseClient с сервером-заглушкой: ответ сервера задаётся на каждый тест
+public class BaseClientTest {
+
+    private static final String BODY = "{\"id\":1}";
+
+    private final AtomicInteger serverCalls = new AtomicInteger();
+
+    private Supplier<Mono<ClientResponse>> server;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private CircuitBreaker circuitBreaker;
+
+    private TestClient client;
+
+    @BeforeEach
+    void setUp() {
+        // Глобальный реестр держит gauge первого созданного клиента, поэтому метрики заводим заново
+        Metrics.globalRegistry.clear();
+        meterRegistry = new SimpleMeterRegistry();
+        Metrics.addRegistry(meterRegistry);
+        circuitBreaker = CircuitBreaker.ofDefaults("test");
+        WebClient rest = WebClient.builder()
+                .exchangeFunction(request -> {
+                    serverCalls.incrementAndGet();
+                    return server.get();
+                })
+                .build();
+        client = new TestClient(rest, circuitBreaker, Bulkhead.ofDefaults("test"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        Metrics.removeRegistry(meterRegistry);
+        Metrics.globalRegistry.clear();
+    }
+
+    @Test
+    void concurrentIdenticalGetsMakeOneServerCallTest() throws Exception {
+        // Assign
+        Sinks.One<ClientResponse> response = Sinks.one();
+        server = response::asMono;
+
+        // Act
+        CompletableFuture<ResponseEntity<Object>> first = client.get("/items/1", 1L).toFuture();
+        CompletableFuture<ResponseEntity<Object>> second = client.get("/items/1", 1L).toFuture();
+        response.tryEmitValue(ok());
+
+        // Assert
+        Assertions.assertEquals(1, serverCalls.get());
+        Assertions.assertArrayEquals(BODY.getBytes(StandardCharsets.UTF_8), (byte[]) first.get().getBody());
+        Assertions.assertArrayEquals(BODY.getBytes(StandardCharsets.UTF_8), (byte[]) second.get().getBody());
+        Assertions.assertEquals(1, singleFlightCount("upstream"));
+        Assertions.assertEquals(1, singleFlightCount("collapsed"));
+        Assertions.assertEquals(0, inFlight());
+    }
+
+    @Test
+    void differentGetsAreNotCollapsedTest() {
+        // Assign
+        server = () -> Mono.just(ok());
+
+        // Act
+        client.get("/items/1", 1L).block();
+        client.get("/items/1", 2L).block();
+
+        // Assert
+        Assertions.assertEquals(2, serverCalls.get());
+        Assertions.assertEquals(0, singleFlightCount("collapsed"));
+    }
+
+    @Test
+    void failedCallLeavesNoInFlightEntryTest() {
+        // Assign
+        server = () -> Mono.error(new IllegalStateException("connection reset"));
+
+        // Act
+        Assertions.assertThrows(IllegalStateException.class, () -> client.get("/items/1", 1L).block());
+        server = () -> Mono.just(ok());
+        ResponseEntity<Object> response = client.get("/items/1", 1L).block();
+
+        // Assert
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertEquals(2, serverCalls.get());
+        Assertions.assertEquals(2, singleFlightCount("upstream"));
+        Assertions.assertEquals(0, singleFlightCount("collapsed"));
+        Assertions.assertEquals(0, inFlight());
+    }
+
+    @Test
+    void cancelledCallLeavesNoInFlightEntryTest() {
+        // Assign
+        server = Mono::never;
+        Disposable call = client.get("/items/1", 1L).subscribe();
+        Assertions.assertEquals(1, inFlight());
+
+        // Act
+        call.dispose();
+        server = () -> Mono.just(ok());
+        ResponseEntity<Object> response = client.get("/items/1", 1L).block();
+
+        // Assert
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertEquals(2, serverCalls.get());
+        Assertions.assertEquals(0, singleFlightCount("collapsed"));
+        Assertions.assertEquals(0, inFlight());
+    }
+
+    @Test
+    void serverErrorReachesCallerAndCountsAsFailureTest() {
+        // Assign
+        String error = "{\"error\":\"boom\"}";
+        server = () -> Mono.just(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(error)
+                .build());
+
+        // Act
+        ResponseEntity<Object> response = client.get("/items/1", 1L).block();
+
+        // Assert
+        Assertions.assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        Assertions.assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        Assertions.assertArrayEquals(error.getBytes(StandardCharsets.UTF_8), (byte[]) response.getBody());
+        Assertions.assertEquals(1, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+        Assertions.assertEquals(0, circuitBreaker.getMetrics().getNumberOfSuccessfulCalls());
+    }
+
+    @Test
+    void clientErrorCountsAsSuccessTest() {
+        // Assign
+        server = () -> Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND).build());
+
+        // Act
+        ResponseEntity<Object> response = client.get("/items/1", 1L).block();
+
+        // Assert
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        Assertions.assertEquals(0, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+        Assertions.assertEquals(1, circuitBreaker.getMetrics().getNumberOfSuccessfulCalls());
+    }
+
+    @Test
+    void openCircuitBreakerRejectsWithoutServerCallTest() {
+        // Assign
+        server = () -> Mono.just(ok());
+        circuitBreaker.transitionToOpenState();
+
+        // Act
+        Assertions.assertThrows(CallNotPermittedException.class, () -> client.get("/items/1", 1L).block());
+
+        // Assert
+        Assertions.assertEquals(0, serverCalls.get());
+    }
+
+    @Test
+    void bodyOverDefaultCodecLimitReachesCallerTest() {
+        // Assign
+        byte[] body = new byte[300_000];
+        Arrays.fill(body, (byte) 'a');
+        // Ответ разбирается кодеками самого WebClient, а не ClientResponse.create с настройками по умолчанию
+        WebClient.Builder builder = WebClient.builder().clientConnector((method, uri, requestCallback) -> {
+            serverCalls.incrementAndGet();
+            MockClientHttpResponse response = new MockClientHttpResponse(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            response.setBody(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body)));
+            return Mono.just(response);
+        });
+        new ServerClientConfig().serverWebClientCustomizer(new ServerClientProperties()).customize(builder);
+        TestClient largeBodyClient = new TestClient(builder.build(), circuitBreaker, Bulkhead.ofDefaults("test"));
+
+        // Act
+        ResponseEntity<Object> response = largeBodyClient.get("/users", 1L).block();
+
+        // Assert
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertArrayEquals(body, (byte[]) response.getBody());
+        Assertions.assertEquals(1, serverCalls.get());
+        Assertions.assertEquals(0, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+    }
+
+    private static ClientResponse ok() {
+        return ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(BODY)
+                .build();
+    }
+
+    private double singleFlightCount(String result) {
+        return meterRegistry.get("gateway.single.flight").tag("result", result).counter().count();
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("gateway.single.flight.in.flight").gauge().value();
+    }
+
+    private static class TestClient extends BaseClient {
+
+        private TestClient(WebClient rest, CircuitBreaker circuitBreaker, Bulkhead bulkhead) {
+            super(rest, circuitBreaker, bulkhead);
+        }
+
+        @Override
+        protected Mono<ResponseEntity<Object>> get(String path, long userId) {
+            return super.get(path, userId);
+        }
+    }
+}
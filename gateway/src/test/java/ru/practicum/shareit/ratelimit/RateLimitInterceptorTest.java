@@ -0,0 +1,102 @@
+package ru.practicum.shareit.ratelimit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.pattern.PathPatternParser;
+import ru.practicum.shareit.exception.TooManyRequestsException;
+
+import javax.servlet.DispatcherType;
+import java.util.List;
+
+public class RateLimitInterceptorTest {
+
+    private RateLimitInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRules(List.of(
+                rule(HttpMethod.POST, "/bookings", 1, 0.5),
+                rule(null, "/items/{itemId}", 1, 1)));
+        interceptor = new RateLimitInterceptor(properties);
+    }
+
+    @Test
+    void exhaustedBucketThrowsWithRetryAfterTest() {
+        // Assign
+        Assertions.assertTrue(preHandle(request("POST", "/bookings", "1")));
+
+        // Act
+        TooManyRequestsException e = Assertions.assertThrows(TooManyRequestsException.class,
+                () -> preHandle(request("POST", "/bookings", "1")));
+
+        // Assert
+        Assertions.assertEquals(2, e.getRetryAfterSeconds());
+    }
+
+    @Test
+    void otherMethodOrPatternIsNotLimitedTest() {
+        // Assign
+        preHandle(request("POST", "/bookings", "1"));
+
+        // Act & Assert
+        Assertions.assertTrue(preHandle(request("GET", "/bookings", "1")));
+        Assertions.assertTrue(preHandle(request("POST", "/bookings/{bookingId}", "1")));
+        Assertions.assertTrue(preHandle(request("POST", "/bookings", "2")));
+    }
+
+    @Test
+    void ruleWithoutMethodMatchesBestMatchingPathPatternTest() {
+        // Assign
+        MockHttpServletRequest first = request("GET", "/items/1", "1");
+        first.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                PathPatternParser.defaultInstance.parse("/items/{itemId}"));
+        MockHttpServletRequest second = request("PATCH", "/items/2", "1");
+        second.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                PathPatternParser.defaultInstance.parse("/items/{itemId}"));
+
+        // Act & Assert
+        Assertions.assertTrue(preHandle(first));
+        Assertions.assertThrows(TooManyRequestsException.class, () -> preHandle(second));
+    }
+
+    @Test
+    void asyncDispatchAndRequestsWithoutUserAreNotCountedTest() {
+        // Assign
+        MockHttpServletRequest async = request("POST", "/bookings", "1");
+        async.setDispatcherType(DispatcherType.ASYNC);
+
+        // Act & Assert
+        Assertions.assertTrue(preHandle(async));
+        Assertions.assertTrue(preHandle(request("POST", "/bookings", null)));
+        Assertions.assertTrue(preHandle(request("POST", "/bookings", "1")));
+    }
+
+    private boolean preHandle(MockHttpServletRequest request) {
+        return interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+    }
+
+    // Шаблон пути в запросе - как его оставляет Spring MVC после выбора обработчика
+    private static MockHttpServletRequest request(String method, String pattern, String userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, pattern);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        if (userId != null) {
+            request.addHeader("X-Sharer-User-Id", userId);
+        }
+        return request;
+    }
+
+    private static RateLimitProperties.Rule rule(HttpMethod method, String path, int capacity, double refillPerSecond) {
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setMethod(method);
+        rule.setPath(path);
+        rule.setCapacity(capacity);
+        rule.setRefillPerSecond(refillPerSecond);
+        return rule;
+    }
+}
@@ -0,0 +1,91 @@
+package ru.practicum.shareit.ratelimit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+// Время задаётся явно, System.nanoTime в тестах не участвует
+public class TokenBucketsTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void fullBucketAllowsBurstOfCapacityTest() {
+        // Assign
+        TokenBuckets buckets = new TokenBuckets(3, 1);
+
+        // Act & Assert
+        Assertions.assertEquals(0, buckets.tryAcquire(1L, 0));
+        Assertions.assertEquals(0, buckets.tryAcquire(1L, 0));
+        Assertions.assertEquals(0, buckets.tryAcquire(1L, 0));
+        Assertions.assertEquals(SECOND, buckets.tryAcquire(1L, 0));
+    }
+
+    @Test
+    void bucketRefillsAtConfiguredRateTest() {
+        // Assign
+        TokenBuckets buckets = new TokenBuckets(2, 4);
+        buckets.tryAcquire(1L, 0);
+        buckets.tryAcquire(1L, 0);
+
+        // Act & Assert
+        Assertions.assertEquals(SECOND / 4 - SECOND / 10, buckets.tryAcquire(1L, SECOND / 10));
+        Assertions.assertEquals(0, buckets.tryAcquire(1L, SECOND / 4));
+        Assertions.assertEquals(SECOND / 4, buckets.tryAcquire(1L, SECOND / 4));
+        // После простоя корзина наполняется только до ёмкости
+        Assertions.assertEquals(0, buckets.tryAcquire(1L, 2 * SECOND));
+        Assertions.assertEquals(0, buckets.tryAcquire(1L, 2 * SECOND));
+        Assertions.assertTrue(buckets.tryAcquire(1L, 2 * SECOND) > 0);
+    }
+
+    @Test
+    void usersHaveSeparateBucketsTest() {
+        // Assign
+        TokenBuckets buckets = new TokenBuckets(1, 1);
+
+        // Act & Assert
+        Assertions.assertEquals(0, buckets.tryAcquire(1L, 0));
+        Assertions.assertTrue(buckets.tryAcquire(1L, 0) > 0);
+        Assertions.assertEquals(0, buckets.tryAcquire(2L, 0));
+    }
+
+    @Test
+    void cleanupKeepsBucketsThatAreNotFullTest() {
+        // Assign
+        TokenBuckets buckets = new TokenBuckets(1, 1);
+        buckets.tryAcquire(0L, 0);
+        // Столько пользователей, что очистка запустится в каждом сегменте; к моменту 10 с их корзины полны
+        for (long userId = 1; userId <= 100_000; userId++) {
+            buckets.tryAcquire(userId, 0);
+        }
+
+        // Act & Assert
+        Assertions.assertEquals(0, buckets.tryAcquire(0L, 10 * SECOND));
+        Assertions.assertEquals(SECOND, buckets.tryAcquire(0L, 10 * SECOND));
+        Assertions.assertEquals(0, buckets.tryAcquire(1L, 10 * SECOND));
+    }
+
+    @Test
+    void cleanupRunsAtMostOncePerRefillIntervalTest() {
+        // Assign
+        TokenBuckets buckets = new TokenBuckets(2, 1);
+        // Сегменты переполнены корзинами, которые не полны: очистка проходит по ним один раз и ничего не удаляет
+        for (long userId = 1; userId <= 100_000; userId++) {
+            buckets.tryAcquire(userId, 0);
+        }
+        Assertions.assertEquals(100_000, buckets.size());
+
+        // Act & Assert
+        // Через 1,5 с корзины уже полны, но с прошлой очистки не прошло время пополнения корзины (2 с)
+        for (long userId = 100_001; userId <= 100_100; userId++) {
+            buckets.tryAcquire(userId, 3 * SECOND / 2);
+        }
+        Assertions.assertEquals(100_100, buckets.size());
+        // Через 2 с очистка снова разрешена и убирает полные корзины
+        for (long userId = 100_101; userId <= 100_200; userId++) {
+            buckets.tryAcquire(userId, 2 * SECOND);
+        }
+        Assertions.assertTrue(buckets.size() <= 200, "buckets left: " + buckets.size());
+    }
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareit.booking.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -14,6 +15,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.BookingCursor;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
@@ -26,6 +28,8 @@ import java.util.List;
 @RequestMapping(path = "/bookings")
 public class BookingController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final BookingService bookingService;
 
     @PostMapping
@@ -52,22 +56,33 @@ public class BookingController {
     }
 
     @GetMapping()
-    @ResponseStatus(HttpStatus.OK)
-    public List<BookingResponseDto> getAllBookingsByBooker(
+    public ResponseEntity<List<BookingResponseDto>> getAllBookingsByBooker(
             @RequestParam(defaultValue = "ALL") String state,
             @RequestHeader("X-Sharer-User-Id") long userId,
             @RequestParam(required = false, defaultValue = "0") Integer from,
-            @RequestParam(required = false, defaultValue = "100") Integer size) throws NotFoundException {
-        return bookingService.getAllBookingsByBooker(state, userId, from, size);
+            @RequestParam(required = false, defaultValue = "100") Integer size,
+            @RequestParam(required = false) String cursor) throws NotFoundException, BadRequestException {
+        return withNextCursor(bookingService.getAllBookingsByBooker(state, userId, from, size, cursor), size);
     }
 
     @GetMapping("/owner")
-    @ResponseStatus(HttpStatus.OK)
-    public List<BookingResponseDto> getAllBookingsByOwner(
+    public ResponseEntity<List<BookingResponseDto>> getAllBookingsByOwner(
             @RequestParam(defaultValue = "ALL") String state,
             @RequestHeader("X-Sharer-User-Id") long userId,
             @RequestParam(required = false, defaultValue = "0") Integer from,
-            @RequestParam(required = false, defaultValue = "100") Integer size) throws NotFoundException {
-        return bookingService.getAllBookingsByOwner(state, userId, from, size);
+            @RequestParam(required = false, defaultValue = "100") Integer size,
+            @RequestParam(required = false) String cursor) throws NotFoundException, BadRequestException {
+        return withNextCursor(bookingService.getAllBookingsByOwner(state, userId, from, size, cursor), size);
+    }
+
+    // Полная страница - отдаем курсор на следующую в заголовке, тело ответа остается прежним списком
+    private static ResponseEntity<List<BookingResponseDto>> withNextCursor(List<BookingResponseDto> bookings,
+                                                                           Integer size) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!bookings.isEmpty() && bookings.size() >= size) {
+            BookingResponseDto last = bookings.get(bookings.size() - 1);
+            response.header(NEXT_CURSOR_HEADER, new BookingCursor(last.getStart(), last.getId()).encode());
+        }
+        return response.body(bookings);
     }
 }
@@ -4,8 +4,6 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 import ru.practicum.shareit.booking.enums.BookingStatus;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 
@@ -18,11 +16,34 @@ public class BookingResponseDto {
 
     private Item item;
 
-    private User booker;
+    private Booker booker;
 
     private BookingStatus status;
 
     private LocalDateTime start;
 
     private LocalDateTime end;
+
+    // Для проекции списков бронирований прямо из запроса
+    public BookingResponseDto(long id, long itemId, String itemName, long bookerId, BookingStatus status,
+                              LocalDateTime start, LocalDateTime end) {
+        this(id, new Item(itemId, itemName), new Booker(bookerId), status, start, end);
+    }
+
+    // Вещь в ответе - только то, что нужно клиенту, без владельца и запроса
+    @Getter
+    @AllArgsConstructor
+    public static class Item {
+
+        private long id;
+
+        private String name;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Booker {
+
+        private long id;
+    }
 }
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.enums;
+
+public enum BookingRole {
+
+    // Бронирования, сделанные пользователем
+    BOOKER,
+    // Бронирования вещей пользователя
+    OWNER
+}
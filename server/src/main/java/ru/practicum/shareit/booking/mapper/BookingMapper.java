@@ -30,8 +30,8 @@ public class BookingMapper {
     public static BookingResponseDto toBookingResponseDto(Booking booking) {
         return new BookingResponseDto(
                 booking.getId(),
-                booking.getItem(),
-                booking.getBooker(),
+                new BookingResponseDto.Item(booking.getItem().getId(), booking.getItem().getName()),
+                new BookingResponseDto.Booker(booking.getBooker().getId()),
                 booking.getStatus(),
                 booking.getStart(),
                 booking.getEnd());
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Позиция в списке бронирований, отсортированном по (START_DATE desc, ID desc).
+// Клиенту отдается в виде непрозрачной строки, следующая страница начинается строго после этой позиции
+@Getter
+@AllArgsConstructor
+public class BookingCursor {
+
+    private static final String SEPARATOR = "_";
+
+    private final LocalDateTime start;
+
+    private final long id;
+
+    public String encode() {
+        String raw = start + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static BookingCursor decode(String token) throws BadRequestException {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new BookingCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BadRequestException("Wrong cursor: " + token);
+        }
+    }
+}
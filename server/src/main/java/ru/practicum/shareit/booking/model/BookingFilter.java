@@ -0,0 +1,29 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.booking.enums.BookingRole;
+import ru.practicum.shareit.booking.enums.BookingState;
+
+import java.time.LocalDateTime;
+
+// Параметры выборки списка бронирований: чьи, в каком состоянии на момент now и какая страница.
+// Если задан cursor, страница начинается сразу после него и offset не используется
+@Getter
+@AllArgsConstructor
+public class BookingFilter {
+
+    private final BookingRole role;
+
+    private final long userId;
+
+    private final BookingState state;
+
+    private final LocalDateTime now;
+
+    private final BookingCursor cursor;
+
+    private final int offset;
+
+    private final int limit;
+}
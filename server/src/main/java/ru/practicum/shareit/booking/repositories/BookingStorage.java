@@ -1,85 +1,26 @@
 package ru.practicum.shareit.booking.repositories;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.enums.BookingStatus;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface BookingStorage extends JpaRepository<Booking, Long> {
+public interface BookingStorage extends JpaRepository<Booking, Long>, BookingStorageCustom {
 
-    Page<Booking> findAllByBookerOrderByStartDesc(User user, Pageable pageable);
-
-    @Query(value = "select * from BOOKINGS B " +
-            "where B.BOOKER_ID = ?1 " +
-            "and (B.STATUS = ?2 or B.STATUS = ?3) " +
-            "order by B.START_DATE desc",
-            nativeQuery = true)
-    List<Booking> findAllByBookerAndStatusFutureOrderByStartDesc(long bookerId, String status1, String status2);
-
-    //!!!
-    @Query(value = "select * from BOOKINGS B " +
-            "where (B.ITEM_ID = ?1 " +
-            "and B.BOOKER_ID = ?2)" +
-            "and (B.STATUS = ?3 or B.STATUS = ?4)" +
-            "and B.START_DATE < ?4",
-            nativeQuery = true)
-    List<Booking> findAllByBooker_IdAndItem_IdAndStatusApprovedOrderByStartDesc(
-            long itemId, long bookerId, String status1, String status2, LocalDateTime now);
-
-    @Query(value = "select * from BOOKINGS B " +
-            "join ITEMS I on I.ID = B.ITEM_ID " +
-            "where B.BOOKER_ID = ?1 " +
-            "and B.STATUS = ?2 " +
-            "order by B.START_DATE desc",
-            nativeQuery = true)
-    List<Booking> findAllByBookerAndStatusOrderByStartDesc(long userId, String status);
-
-    List<Booking> findAllByBooker_IdAndEndIsBefore(long bookerId, LocalDateTime end);
-
-    List<Booking> findAllByBooker_idAndEndIsAfterAndStartIsBefore(long bookerId, LocalDateTime end, LocalDateTime start);
-
-    @Query(value = "select * from BOOKINGS B " +
-            "join ITEMS I on I.ID = B.ITEM_ID " +
-            "where I.OWNER_ID = ?1 " +
-            "and B.END_DATE < ?2 " +
-            "order by B.START_DATE desc",
-            nativeQuery = true)
-    List<Booking> findAllByOwner_IdAndEndIsBefore(long ownerId, LocalDateTime end);
-
-    @Query(value = "select * from BOOKINGS B " +
-            "join ITEMS I on I.ID = B.ITEM_ID " +
-            "where I.OWNER_ID = ?1 " +
-            "and (B.END_DATE > ?2 and B.START_DATE < ?3)" +
-            "order by B.START_DATE desc",
-            nativeQuery = true)
-    List<Booking> findAllByOwner_IdAndEndIsAfterAndStartIsBefore(long ownerId, LocalDateTime end, LocalDateTime start);
-
-    Page<Booking> findAllByItemOwnerOrderByStartDesc(User itemOwner, Pageable pageable);
-
-    @Query(value = "select * from BOOKINGS B " +
-            "join ITEMS I on I.ID = B.ITEM_ID " +
-            "where I.OWNER_ID = ?1 " +
-            "and B.STATUS = ?2 " +
-            "order by B.START_DATE desc",
-            nativeQuery = true)
-    List<Booking> findAllByItemOwnerAndStatusOrderByStartDesc(long userId, String status);
-
-    @Query(value = "select * from BOOKINGS B " +
-            "join ITEMS I on I.ID = B.ITEM_ID " +
-            "where I.OWNER_ID = ?1 " +
-            "and (B.STATUS = ?2 or B.STATUS = ?3)" +
-            "order by B.START_DATE desc",
-            nativeQuery = true)
-    List<Booking> findAllByOwnerAndStatusFutureOrderByStartDesc(long ownerId, String status1, String status2);
+    @Override
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    Optional<Booking> findById(Long id);
 
     Optional<Booking> findByItemAndBooker(Item item, User booker);
 
@@ -91,4 +32,50 @@ public interface BookingStorage extends JpaRepository<Booking, Long> {
     //Next
     Booking findFirstByItem_idAndStartAfterOrderByStartDesc(long itemId, LocalDateTime start);
 
+    //Ближайшее окончание бронирования вещи после момента time
+    @Query(value = "select min(B.end) from Booking B where B.item.id = ?1 and B.end > ?2")
+    LocalDateTime findNearestEndAfter(long itemId, LocalDateTime time);
+
+    //Overlap: [start, end) пересекается с бронированием в статусе status
+    boolean existsByItem_IdAndStatusAndStartBeforeAndEndAfter(long itemId,
+                                                             BookingStatus status,
+                                                             LocalDateTime end,
+                                                             LocalDateTime start);
+
+    //Availability: бронирования вещи, пересекающиеся с окном [from, to), по возрастанию начала
+    @Query(value = "select new ru.practicum.shareit.booking.dto.BookingDto(" +
+            "B.id, B.item.id, B.booker.id, B.start, B.end, B.status) " +
+            "from Booking B " +
+            "where B.item.id = ?1 " +
+            "and B.status = ?2 " +
+            "and B.start < ?4 and B.end > ?3 " +
+            "order by B.start")
+    List<BookingDto> findAllByItemIdAndStatusBetween(long itemId,
+                                                     BookingStatus status,
+                                                     LocalDateTime from,
+                                                     LocalDateTime to);
+
+    //By ids: материализованные последнее/следующее бронирования вещей
+    @Query(value = "select new ru.practicum.shareit.booking.dto.BookingDto(" +
+            "B.id, B.item.id, B.booker.id, B.start, B.end, B.status) " +
+            "from Booking B " +
+            "where B.id in ?1")
+    List<BookingDto> findAllBookingDtosByIds(Collection<Long> bookingIds);
+
+    //Last for several items
+    @Query(value = "select new ru.practicum.shareit.booking.dto.BookingDto(" +
+            "B.id, B.item.id, B.booker.id, B.start, B.end, B.status) " +
+            "from Booking B " +
+            "where B.item.id in ?1 " +
+            "and B.end = (select max(LB.end) from Booking LB where LB.item.id = B.item.id and LB.end < ?2)")
+    List<BookingDto> findLastBookingsByItemIds(Collection<Long> itemIds, LocalDateTime end);
+
+    //Next for several items
+    @Query(value = "select new ru.practicum.shareit.booking.dto.BookingDto(" +
+            "B.id, B.item.id, B.booker.id, B.start, B.end, B.status) " +
+            "from Booking B " +
+            "where B.item.id in ?1 " +
+            "and B.start = (select max(NB.start) from Booking NB where NB.item.id = B.item.id and NB.start > ?2)")
+    List<BookingDto> findNextBookingsByItemIds(Collection<Long> itemIds, LocalDateTime start);
+
 }
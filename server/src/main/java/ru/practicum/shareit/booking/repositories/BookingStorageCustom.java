@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.repositories;
+
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.BookingFilter;
+
+import java.util.List;
+
+public interface BookingStorageCustom {
+
+    List<BookingResponseDto> findBookingResponses(BookingFilter filter);
+}
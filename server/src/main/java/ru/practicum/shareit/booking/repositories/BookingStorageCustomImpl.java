@@ -0,0 +1,88 @@
+package ru.practicum.shareit.booking.repositories;
+
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.enums.BookingRole;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingCursor;
+import ru.practicum.shareit.booking.model.BookingFilter;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Один запрос на все состояния и обе роли: фильтр, сортировка (START_DATE desc, ID desc)
+// и LIMIT/OFFSET применяются в базе. Строки сразу собираются в BookingResponseDto одним join-ом
+// с вещью и бронирующим, без управляемых сущностей и их снимков для dirty checking
+@RequiredArgsConstructor
+public class BookingStorageCustomImpl implements BookingStorageCustom {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<BookingResponseDto> findBookingResponses(BookingFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingResponseDto> query = cb.createQuery(BookingResponseDto.class);
+        Root<Booking> booking = query.from(Booking.class);
+        Join<Booking, Item> item = booking.join("item");
+        Join<Booking, User> booker = booking.join("booker");
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getRole() == BookingRole.BOOKER) {
+            predicates.add(cb.equal(booker.get("id"), filter.getUserId()));
+        } else {
+            predicates.add(cb.equal(item.get("owner").get("id"), filter.getUserId()));
+        }
+        switch (filter.getState()) {
+            case CURRENT:
+                predicates.add(cb.greaterThan(booking.<LocalDateTime>get("end"), filter.getNow()));
+                predicates.add(cb.lessThan(booking.<LocalDateTime>get("start"), filter.getNow().plusSeconds(1)));
+                break;
+            case PAST:
+                predicates.add(cb.lessThan(booking.<LocalDateTime>get("end"), filter.getNow()));
+                break;
+            case FUTURE:
+                predicates.add(booking.get("status").in(BookingStatus.WAITING, BookingStatus.APPROVED));
+                break;
+            case WAITING:
+                predicates.add(cb.equal(booking.get("status"), BookingStatus.WAITING));
+                break;
+            case REJECTED:
+                predicates.add(cb.equal(booking.get("status"), BookingStatus.REJECTED));
+                break;
+            default:
+                break;
+        }
+        BookingCursor cursor = filter.getCursor();
+        if (cursor != null) {
+            predicates.add(cb.or(
+                    cb.lessThan(booking.<LocalDateTime>get("start"), cursor.getStart()),
+                    cb.and(cb.equal(booking.<LocalDateTime>get("start"), cursor.getStart()),
+                            cb.lessThan(booking.<Long>get("id"), cursor.getId()))));
+        }
+
+        query.select(cb.construct(BookingResponseDto.class,
+                        booking.get("id"),
+                        item.get("id"),
+                        item.get("name"),
+                        booker.get("id"),
+                        booking.get("status"),
+                        booking.get("start"),
+                        booking.get("end")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(booking.<LocalDateTime>get("start")), cb.desc(booking.get("id")));
+        return entityManager.createQuery(query)
+                .setFirstResult(filter.getOffset())
+                .setMaxResults(filter.getLimit())
+                .getResultList();
+    }
+}
@@ -23,11 +23,11 @@ public interface BookingService {
     BookingResponseDto getBooking(long bookingId, long userID)
             throws NotFoundException, UserNotBooker;
 
-    List<BookingResponseDto> getAllBookingsByBooker(String state, long userId, Integer from, Integer size)
-            throws NotFoundException;
+    List<BookingResponseDto> getAllBookingsByBooker(String state, long userId, Integer from, Integer size, String cursor)
+            throws NotFoundException, BadRequestException;
 
-    List<BookingResponseDto> getAllBookingsByOwner(String state, long userId, Integer from, Integer size)
-            throws NotFoundException;
+    List<BookingResponseDto> getAllBookingsByOwner(String state, long userId, Integer from, Integer size, String cursor)
+            throws NotFoundException, BadRequestException;
 
     Booking getLastBookingByItem(long itemId);
 
@@ -1,14 +1,17 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.enums.BookingRole;
+import ru.practicum.shareit.booking.enums.BookingState;
 import ru.practicum.shareit.booking.enums.BookingStatus;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingCursor;
+import ru.practicum.shareit.booking.model.BookingFilter;
 import ru.practicum.shareit.booking.repositories.BookingStorage;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
@@ -21,10 +24,10 @@ import ru.practicum.shareit.user.services.UserService;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
 
     private final BookingStorage bookingRepository;
@@ -32,10 +35,11 @@ public class BookingServiceImpl implements BookingService {
     private final ItemService itemService;
 
     @Override
+    @Transactional
     public BookingResponseDto createBooking(BookingDto bookingDto, long userId) throws BadRequestException, NotFoundException, ItemNullParametr {
         User booker = userService.checkUser(userId);
         Item currentItem = itemService.checkItem(bookingDto.getItemId());
-        if (currentItem.getOwner().equals(booker)) {
+        if (currentItem.getOwner().getId().equals(booker.getId())) {
             throw new NotFoundException("Booker can't book own Item");
         }
         if (currentItem.getAvailable()) {
@@ -49,8 +53,10 @@ public class BookingServiceImpl implements BookingService {
             if (optionalBooking.isPresent() && optionalBooking.get().getStatus().equals(BookingStatus.REJECTED)) {
                 throw new NotFoundException("Booking REJECTED");
             }
+            checkOverlap(booking);
             booking.setStatus(BookingStatus.WAITING);
             bookingRepository.save(booking);
+            itemService.refreshItemBookings(currentItem.getId());
             return BookingMapper.toBookingResponseDto(booking);
         } else {
             throw new ItemNullParametr("Item is unavailable");
@@ -58,17 +64,20 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
+    @Transactional
     public BookingResponseDto ownerDecision(long bookingId, long ownerId, boolean approved)
             throws NotFoundException, BadRequestException {
         Booking booking = checkBooking(bookingId);
         if (booking.getItem().getOwner().getId().equals(ownerId)) {
             if (booking.getStatus().equals(BookingStatus.WAITING)) {
                 if (approved) {
+                    checkOverlap(booking);
                     booking.setStatus(BookingStatus.APPROVED);
                 } else {
                     booking.setStatus(BookingStatus.REJECTED);
                 }
                 bookingRepository.save(booking);
+                itemService.refreshItemBookings(booking.getItem().getId());
                 return BookingMapper.toBookingResponseDto(booking);
             } else {
                 throw new BadRequestException("Status not WAITING");
@@ -82,7 +91,8 @@ public class BookingServiceImpl implements BookingService {
     public BookingResponseDto getBooking(long bookingId, long userId) throws NotFoundException {
         Booking booking = checkBooking(bookingId);
         User user = userService.checkUser(userId);
-        if (booking.getBooker().equals(user) || booking.getItem().getOwner().equals(user)) {
+        if (booking.getBooker().getId().equals(user.getId())
+                || booking.getItem().getOwner().getId().equals(user.getId())) {
             return BookingMapper.toBookingResponseDto(booking);
         } else {
             throw new NotFoundException("User not Booker and not Owner");
@@ -90,92 +100,32 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingResponseDto> getAllBookingsByBooker(String state, long userId, Integer from, Integer size)
-            throws BadRequestException {
-        User booker = userService.checkUser(userId);
-        if (state.equals("ALL")) {
-            if (from != 0) {
-                from -= 1;
-            }
-            Page<Booking> bookings = bookingRepository.findAllByBookerOrderByStartDesc(
-                    booker, PageRequest.of(from, size));
-            return bookings.stream().map(BookingMapper::toBookingResponseDto).collect(Collectors.toList());
-        }
-        if (state.equals("FUTURE")) {
-            return bookingRepository
-                    .findAllByBookerAndStatusFutureOrderByStartDesc(userId,
-                            BookingStatus.WAITING.name(),
-                            BookingStatus.APPROVED.name()).stream()
-                    .map(BookingMapper::toBookingResponseDto)
-                    .collect(Collectors.toList());
-        }
-        if (state.equals("CURRENT")) {
-            return bookingRepository.findAllByBooker_idAndEndIsAfterAndStartIsBefore(userId,
-                            LocalDateTime.now(),
-                            LocalDateTime.now().plusSeconds(1)
-                    ).stream()
-                    .map(BookingMapper::toBookingResponseDto)
-                    .collect(Collectors.toList());
-        }
-        if (state.equals("PAST")) {
-            return bookingRepository.findAllByBooker_IdAndEndIsBefore(userId, LocalDateTime.now()).stream()
-                    .map(BookingMapper::toBookingResponseDto)
-                    .collect(Collectors.toList());
-        }
-        if (state.equals("WAITING")) {
-            return bookingRepository.findAllByBookerAndStatusOrderByStartDesc(userId, BookingStatus.WAITING.name())
-                    .stream()
-                    .map(BookingMapper::toBookingResponseDto)
-                    .collect(Collectors.toList());
-        }
-        if (state.equals("REJECTED")) {
-            return bookingRepository.findAllByBookerAndStatusOrderByStartDesc(userId, BookingStatus.REJECTED.name())
-                    .stream()
-                    .map(BookingMapper::toBookingResponseDto)
-                    .collect(Collectors.toList());
-        }
-        throw new BadRequestException("Unknown state: " + state);
+    public List<BookingResponseDto> getAllBookingsByBooker(String state, long userId, Integer from, Integer size,
+                                                           String cursor) throws BadRequestException {
+        userService.checkUser(userId);
+        // Исторически для ALL номер страницы бронирующего считается с единицы, для остальных состояний - с нуля
+        if (from != 0 && BookingState.from(state).filter(BookingState.ALL::equals).isPresent()) {
+            from -= 1;
+        }
+        return findBookings(BookingRole.BOOKER, state, userId, from, size, cursor);
     }
 
     @Override
-    public List<BookingResponseDto> getAllBookingsByOwner(String state, long userId, Integer from, Integer size)
-            throws BadRequestException {
-        User owner = userService.checkUser(userId);
-        if (state.equals("ALL")) {
-            Page<Booking> bookings = bookingRepository.findAllByItemOwnerOrderByStartDesc(owner, PageRequest.of(from, size));
-            return bookings.stream().map(BookingMapper::toBookingResponseDto).collect(Collectors.toList());
-        }
-        if (state.equals("FUTURE")) {
-            return bookingRepository.findAllByOwnerAndStatusFutureOrderByStartDesc(userId,
-                            BookingStatus.APPROVED.name(),
-                            BookingStatus.WAITING.name()).stream()
-                    .map(BookingMapper::toBookingResponseDto)
-                    .collect(Collectors.toList());
-        }
-        if (state.equals("CURRENT")) {
-            return bookingRepository.findAllByOwner_IdAndEndIsAfterAndStartIsBefore(userId,
-                            LocalDateTime.now(),
-                            LocalDateTime.now().plusSeconds(1)
-                    ).stream()
-                    .map(BookingMapper::toBookingResponseDto)
-                    .collect(Collectors.toList());
-        }
-        if (state.equals("PAST")) {
-            return bookingRepository.findAllByOwner_IdAndEndIsBefore(userId, LocalDateTime.now()).stream()
-                    .map(BookingMapper::toBookingResponseDto)
-                    .collect(Collectors.toList());
-        }
-        if (state.equals("WAITING")) {
-            return bookingRepository.findAllByItemOwnerAndStatusOrderByStartDesc(userId, BookingStatus.WAITING.name()).stream()
-                    .map(BookingMapper::toBookingResponseDto)
-                    .collect(Collectors.toList());
-        }
-        if (state.equals("REJECTED")) {
-            return bookingRepository.findAllByItemOwnerAndStatusOrderByStartDesc(userId, BookingStatus.REJECTED.name()).stream()
-                    .map(BookingMapper::toBookingResponseDto)
-                    .collect(Collectors.toList());
-        }
-        throw new BadRequestException("Unknown state: " + state);
+    public List<BookingResponseDto> getAllBookingsByOwner(String state, long userId, Integer from, Integer size,
+                                                          String cursor) throws BadRequestException {
+        userService.checkUser(userId);
+        return findBookings(BookingRole.OWNER, state, userId, from, size, cursor);
+    }
+
+    private List<BookingResponseDto> findBookings(BookingRole role, String state, long userId,
+                                                  int page, int size, String cursor) throws BadRequestException {
+        BookingState bookingState = BookingState.from(state)
+                .orElseThrow(() -> new BadRequestException("Unknown state: " + state));
+        BookingCursor bookingCursor = cursor == null ? null : BookingCursor.decode(cursor);
+        int offset = bookingCursor == null ? page * size : 0;
+        BookingFilter filter = new BookingFilter(role, userId, bookingState, LocalDateTime.now(),
+                bookingCursor, offset, size);
+        return bookingRepository.findBookingResponses(filter);
     }
 
     @Override
@@ -197,4 +147,16 @@ public class BookingServiceImpl implements BookingService {
             throw new NotFoundException(String.format("Booking by ID: %s - not found", bookingId));
         }
     }
+
+    // Блокируем строку вещи до конца транзакции, чтобы параллельные запросы (в т.ч. с других
+    // экземпляров сервера) не подтвердили пересекающиеся бронирования
+    private void checkOverlap(Booking booking) throws BadRequestException {
+        itemService.lockItem(booking.getItem().getId());
+        if (bookingRepository.existsByItem_IdAndStatusAndStartBeforeAndEndAfter(booking.getItem().getId(),
+                BookingStatus.APPROVED,
+                booking.getEnd(),
+                booking.getStart())) {
+            throw new BadRequestException("Item is already booked for this time");
+        }
+    }
 }
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+// Периодически спрашивает у каждой реплики её отставание и выключает из чтения отстающие
+// и недоступные, пока они не догонят основную базу
+@Slf4j
+@RequiredArgsConstructor
+public class ReplicaLagMonitor {
+
+    private final ReplicaRoutingDataSource router;
+
+    private final ReplicaProperties properties;
+
+    @Scheduled(fixedDelayString = "${shareit-server.datasource.lag-check-interval:PT5S}")
+    public void checkReplicas() {
+        for (Map.Entry<String, ? extends DataSource> replica : router.getReplicas().entrySet()) {
+            boolean isLagging;
+            try {
+                double lagSeconds = lagSeconds(replica.getValue());
+                isLagging = lagSeconds * 1000 > properties.getMaxLag().toMillis();
+                if (isLagging) {
+                    log.warn("Replica {} is {} s behind, reads go elsewhere", replica.getKey(), lagSeconds);
+                }
+            } catch (SQLException e) {
+                log.warn("Replica {} lag check failed: {}", replica.getKey(), e.getMessage());
+                isLagging = true;
+            }
+            router.setLagging(replica.getKey(), isLagging);
+        }
+    }
+
+    private double lagSeconds(DataSource replica) throws SQLException {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(properties.getLagQuery())) {
+            if (!result.next()) {
+                return 0;
+            }
+            Number lag = (Number) result.getObject(1);
+            // Реплика ещё не применила ни одной транзакции
+            return lag == null ? 0 : lag.doubleValue();
+        }
+    }
+}
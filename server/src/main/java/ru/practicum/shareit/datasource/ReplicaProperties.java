@@ -0,0 +1,37 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Реплики для транзакций только на чтение. Пока список пуст, всё идёт в основную базу
+@ConfigurationProperties(prefix = "shareit-server.datasource")
+@Getter
+@Setter
+public class ReplicaProperties {
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    // Реплика, отставшая сильнее, исключается из чтения до следующей проверки
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    // Отставание реплики в секундах; на ведущей и на догнавшей реплике - 0
+    private String lagQuery = "select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0 "
+            + "else extract(epoch from now() - pg_last_xact_replay_timestamp()) end";
+
+    @Getter
+    @Setter
+    public static class Replica {
+
+        private String url;
+
+        // null - как у основной базы
+        private String username;
+
+        private String password;
+    }
+}
@@ -0,0 +1,117 @@
+package ru.practicum.shareit.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Транзакции readOnly по кругу уходят на реплики, которые не отстают, остальное - в основную базу.
+// Соединение должно браться уже внутри транзакции, поэтому снаружи источник оборачивается
+// в LazyConnectionDataSourceProxy
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    public static final String PRIMARY = "primary";
+
+    private final Map<String, HikariDataSource> replicas;
+
+    private final List<String> names;
+
+    // До первой проверки отставания реплика считается отстающей
+    private final Set<String> lagging = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, HikariDataSource> replicas) {
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.names = new ArrayList<>(replicas.keySet());
+        lagging.addAll(names);
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    public Map<String, HikariDataSource> getReplicas() {
+        return replicas;
+    }
+
+    public void setLagging(String replica, boolean isLagging) {
+        if (isLagging) {
+            lagging.add(replica);
+        } else {
+            lagging.remove(replica);
+        }
+    }
+
+    // Чтение, которое наполняет кэш, идёт в основную базу: иначе сразу после сброса кэша
+    // в него может вернуться старое значение с отстающей реплики. Действует, если транзакция
+    // ещё не взяла соединение; взяла ли она реплику - показывает isReadFromReplica
+    public static void readFromPrimary() {
+        RoutingState state = routingState();
+        if (state != null) {
+            state.primaryRequired = true;
+        }
+    }
+
+    public static boolean isReadFromReplica() {
+        RoutingState state = routingState();
+        return state != null && state.replica;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        RoutingState state = routingState();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || state != null && state.primaryRequired) {
+            return PRIMARY;
+        }
+        int start = next.getAndIncrement();
+        for (int i = 0; i < names.size(); i++) {
+            String replica = names.get(Math.floorMod(start + i, names.size()));
+            if (!lagging.contains(replica)) {
+                if (state != null) {
+                    state.replica = true;
+                }
+                return replica;
+            }
+        }
+        return PRIMARY;
+    }
+
+    // Состояние хранится синхронизацией транзакции: при вложенной транзакции она откладывается
+    // вместе с внешней и пропадает по её завершении
+    private static RoutingState routingState() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof RoutingState) {
+                return (RoutingState) synchronization;
+            }
+        }
+        RoutingState state = new RoutingState();
+        TransactionSynchronizationManager.registerSynchronization(state);
+        return state;
+    }
+
+    @Override
+    public void close() {
+        replicas.values().forEach(HikariDataSource::close);
+    }
+
+    private static class RoutingState implements TransactionSynchronization {
+        private boolean primaryRequired;
+        private boolean replica;
+    }
+}
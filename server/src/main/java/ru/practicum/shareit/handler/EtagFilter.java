@@ -0,0 +1,13 @@
+package ru.practicum.shareit.handler;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+// Сильный ETag (хэш тела) на все успешные GET-ответы и 304 на совпавший If-None-Match.
+// Шлюз хранит последний ответ с ETag и перепроверяет его этим заголовком.
+// Хэш считается по уже собранному телу, поэтому 304 экономит только трафик, но не работу сервера:
+// запросы в базу и сериализация выполняются как обычно. У сущностей нет версии или времени изменения,
+// из которых ETag можно было бы получить до построения ответа
+@Component
+public class EtagFilter extends ShallowEtagHeaderFilter {
+}
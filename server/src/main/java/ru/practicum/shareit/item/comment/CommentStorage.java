@@ -1,15 +1,26 @@
 package ru.practicum.shareit.item.comment;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CommentStorage extends JpaRepository<Comment, Long> {
 
+    @EntityGraph(attributePaths = "author")
     List<Comment> getCommentsByItem_idOrderByCreatedDesc(long itemId);
 
     Optional<Comment> findByItem_IdAndAuthor_Id(long itemId, long authorId);
+
+    @Query(value = "select new ru.practicum.shareit.item.comment.CommentDto(" +
+            "C.id, C.text, C.item.id, C.author.name, C.created) " +
+            "from Comment C " +
+            "where C.item.id in ?1 " +
+            "order by C.created desc")
+    List<CommentDto> findAllByItemIdsOrderByCreatedDesc(Collection<Long> itemIds);
 }
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.item.controllers;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,11 +16,14 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.comment.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemBatchResultDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemResponseDto;
 import ru.practicum.shareit.item.exceptions.ItemNotFound;
 import ru.practicum.shareit.item.services.ItemService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -36,6 +40,13 @@ public class ItemController {
         return itemService.createItem(itemDto, userId);
     }
 
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<ItemBatchResultDto> createItems(@RequestBody List<ItemDto> itemDtos,
+                                                @RequestHeader("X-Sharer-User-Id") long userId) throws NotFoundException {
+        return itemService.createItems(itemDtos, userId);
+    }
+
     @PatchMapping("/{itemId}")
     @ResponseStatus(HttpStatus.OK)
     public ItemDto updateItem(@RequestBody ItemDto itemDto,
@@ -57,6 +68,15 @@ public class ItemController {
         return itemService.findItemById(itemId, userId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    @ResponseStatus(HttpStatus.OK)
+    public ItemAvailabilityDto getItemAvailability(@PathVariable long itemId,
+                                                   @RequestHeader("X-Sharer-User-Id") long userId,
+                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemService.getItemAvailability(itemId, userId, from, to);
+    }
+
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
     public List<ItemResponseDto> findAllItemsByUserId(@RequestHeader("X-Sharer-User-Id") long userId,
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class ItemAvailabilityDto {
+
+    private long itemId;
+
+    private LocalDateTime from;
+
+    private LocalDateTime to;
+
+    private List<IntervalDto> busy;
+
+    private List<IntervalDto> free;
+}
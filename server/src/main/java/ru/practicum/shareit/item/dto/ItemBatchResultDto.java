@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+// Результат по одной строке пакетного создания: созданная вещь или причина отказа
+@Getter
+@Setter
+@AllArgsConstructor
+public class ItemBatchResultDto {
+
+    private int index;
+
+    private ItemDto item;
+
+    private String error;
+
+}
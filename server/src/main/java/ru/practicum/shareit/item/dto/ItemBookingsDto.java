@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.booking.dto.BookingDto;
+
+import java.time.LocalDateTime;
+
+// Кэшируемая часть ответа findItemById для владельца: последнее и следующее бронирование.
+// validUntil - ближайший момент, когда они сменятся сами по себе (null - не сменятся)
+@Getter
+@AllArgsConstructor
+public class ItemBookingsDto {
+
+    private final BookingDto lastBooking;
+
+    private final BookingDto nextBooking;
+
+    private final LocalDateTime validUntil;
+
+    public boolean isValidAt(LocalDateTime now) {
+        return validUntil == null || now.isBefore(validUntil);
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.item.comment.CommentDto;
+
+import java.util.List;
+
+// Кэшируемая часть ответа findItemById: вещь и комментарии, одинаковые для всех пользователей
+@Getter
+@AllArgsConstructor
+public class ItemDetailsDto {
+
+    private final long id;
+
+    private final String name;
+
+    private final String description;
+
+    private final Boolean available;
+
+    private final long ownerId;
+
+    private final List<CommentDto> comments;
+}
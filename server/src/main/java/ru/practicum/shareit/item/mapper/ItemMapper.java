@@ -2,9 +2,11 @@ package ru.practicum.shareit.item.mapper;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.comment.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDetailsDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemForRequestDto;
 import ru.practicum.shareit.item.dto.ItemResponseDto;
@@ -53,6 +55,35 @@ public class ItemMapper {
         );
     }
 
+    public static ItemResponseDto toItemResponseDtoFromDtos(Item item,
+                                                            BookingDto lastBooking,
+                                                            BookingDto nextBooking,
+                                                            List<CommentDto> comments) {
+        return new ItemResponseDto(
+                item.getId(),
+                item.getName(),
+                item.getDescription(),
+                item.getAvailable(),
+                lastBooking,
+                nextBooking,
+                comments
+        );
+    }
+
+    public static ItemResponseDto toItemResponseDtoFromDetails(ItemDetailsDto details,
+                                                               BookingDto lastBooking,
+                                                               BookingDto nextBooking) {
+        return new ItemResponseDto(
+                details.getId(),
+                details.getName(),
+                details.getDescription(),
+                details.getAvailable(),
+                lastBooking,
+                nextBooking,
+                details.getComments()
+        );
+    }
+
     public static ItemForRequestDto toItemForRequestDto(Item item) {
         return new ItemForRequestDto(
                 item.getId(),
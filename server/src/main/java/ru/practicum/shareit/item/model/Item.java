@@ -7,7 +7,6 @@ import lombok.ToString;
 import ru.practicum.shareit.request.model.entity.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
-import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
@@ -16,7 +15,9 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import java.time.LocalDateTime;
 
 @Getter
 @Setter
@@ -27,7 +28,8 @@ import javax.persistence.Table;
 public class Item {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "ITEMS_SEQ", allocationSize = 50)
     private long id;
 
     @Column(name = "NAME")
@@ -39,11 +41,24 @@ public class Item {
     @Column(name = "AVAILABLE")
     private Boolean available;
 
-    @ManyToOne(fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "OWNER_ID")
+    @ToString.Exclude
     private User owner;
 
-    @ManyToOne(fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "REQUEST_ID")
+    @ToString.Exclude
     private ItemRequest request;
+
+    // Материализованные последнее и следующее бронирование, пишутся только через ItemStorage.updateBookings
+    @Column(name = "LAST_BOOKING_ID", insertable = false, updatable = false)
+    private Long lastBookingId;
+
+    @Column(name = "NEXT_BOOKING_ID", insertable = false, updatable = false)
+    private Long nextBookingId;
+
+    // Когда значения выше перестанут быть верными: закончится бронирование или начнётся следующее
+    @Column(name = "BOOKINGS_VALID_UNTIL", insertable = false, updatable = false)
+    private LocalDateTime bookingsValidUntil;
 }
@@ -3,23 +3,53 @@ package ru.practicum.shareit.item.repositories;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemForRequestDto;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ItemStorage extends JpaRepository<Item, Long> {
+public interface ItemStorage extends JpaRepository<Item, Long>, ItemStorageCustom {
 
-    Page<Item> findAllByOwnerIdOrderByIdAsc(Long userId, Pageable pageable);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(value = "select I from Item I where I.id = ?1")
+    Optional<Item> findByIdForUpdate(long itemId);
+
+    @Modifying
+    @Query(value = "update Item I set I.lastBookingId = ?2, I.nextBookingId = ?3, I.bookingsValidUntil = ?4 " +
+            "where I.id = ?1")
+    void updateBookings(long itemId, Long lastBookingId, Long nextBookingId, LocalDateTime validUntil);
 
-    @Query(value = "select * from ITEMS I " +
-            "where (lower(I.NAME) LIKE lower(concat('%', :name, '%')) " +
-            "OR lower(I.DESCRIPTION) LIKE lower(concat('%', :description, '%'))" +
-            "AND I.AVAILABLE = TRUE)", nativeQuery = true)
-    Page<Item> findAllByNameAndDescriptionLowerCase(String name, String description, Pageable pageable);
+    //Вещи, у которых последнее/следующее бронирование устарело к моменту time
+    @Query(value = "select I.id from Item I where I.bookingsValidUntil <= ?1 order by I.bookingsValidUntil")
+    List<Long> findIdsWithBookingsValidUntilBefore(LocalDateTime time, Pageable pageable);
+
+    @Query(value = "select I.id from Item I where I.owner.id = ?1")
+    List<Long> findIdsByOwnerId(long ownerId);
+
+    Page<Item> findAllByOwnerIdOrderByIdAsc(Long userId, Pageable pageable);
 
     List<Item> findAllByRequest_IdOrderByRequestIdDesc(long requestId);
 
+    @Query(value = "select new ru.practicum.shareit.item.dto.ItemForRequestDto(" +
+            "I.id, I.name, I.description, I.available, I.request.id) " +
+            "from Item I " +
+            "where I.request.id in ?1 " +
+            "order by I.id")
+    List<ItemForRequestDto> findAllForRequestsByRequestIds(Collection<Long> requestIds);
+
+    @Query(value = "select new ru.practicum.shareit.item.dto.ItemDto(" +
+            "I.id, I.name, I.description, I.available, R.id) " +
+            "from Item I left join I.request R")
+    List<ItemDto> findAllItemDtos();
+
 }
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.repositories;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+public interface ItemStorageCustom {
+
+    List<Item> searchAvailable(String text, Pageable pageable);
+
+    // Всегда подстрока через LIKE, в любой базе: так же ищет ItemSearchIndex
+    List<Item> searchAvailableByLike(String text, Pageable pageable);
+}
@@ -0,0 +1,73 @@
+package ru.practicum.shareit.item.repositories;
+
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+// Поиск доступных вещей: в Postgres по tsvector + GIN (миграция V3) с ранжированием,
+// в остальных базах (H2 в тестах) через LIKE, совпадения в названии выше
+public class ItemStorageCustomImpl implements ItemStorageCustom {
+
+    private static final String FULL_TEXT_SEARCH = "select I.* from ITEMS I " +
+            "where I.AVAILABLE = TRUE and I.SEARCH_VECTOR @@ to_tsquery('simple', :query) " +
+            "order by ts_rank(I.SEARCH_VECTOR, to_tsquery('simple', :query)) desc, I.ID";
+
+    private static final String LIKE_SEARCH = "select I.* from ITEMS I " +
+            "where I.AVAILABLE = TRUE " +
+            "and (lower(I.NAME) like :query or lower(I.DESCRIPTION) like :query) " +
+            "order by case when lower(I.NAME) like :query then 0 else 1 end, I.ID";
+
+    private final EntityManager entityManager;
+    private final boolean fullText;
+
+    public ItemStorageCustomImpl(EntityManager entityManager, DataSource dataSource) throws MetaDataAccessException {
+        this.entityManager = entityManager;
+        String productName = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        this.fullText = DatabaseDriver.fromProductName(productName) == DatabaseDriver.POSTGRESQL;
+    }
+
+    @Override
+    public List<Item> searchAvailable(String text, Pageable pageable) {
+        if (!fullText) {
+            return searchAvailableByLike(text, pageable);
+        }
+        String query = toTsQuery(text);
+        if (query.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return search(FULL_TEXT_SEARCH, query, pageable);
+    }
+
+    @Override
+    public List<Item> searchAvailableByLike(String text, Pageable pageable) {
+        return search(LIKE_SEARCH, "%" + text.toLowerCase(Locale.ROOT) + "%", pageable);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Item> search(String sql, String query, Pageable pageable) {
+        return entityManager.createNativeQuery(sql, Item.class)
+                .setParameter("query", query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
+
+    // "Дрель акк" -> "дрель:* & акк:*": все слова, каждое как префикс
+    private static String toTsQuery(String text) {
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .map(word -> word + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+}
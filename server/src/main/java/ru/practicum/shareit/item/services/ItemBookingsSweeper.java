@@ -0,0 +1,42 @@
+package ru.practicum.shareit.item.services;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.exceptions.ItemNotFound;
+import ru.practicum.shareit.item.repositories.ItemStorage;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Пересчитывает последнее и следующее бронирование вещей, у которых наступил BOOKINGS_VALID_UNTIL:
+// закончилось бронирование или началось следующее. Каждая вещь - в своей транзакции
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "shareit-server.item-bookings", name = "sweeper-enabled", matchIfMissing = true)
+public class ItemBookingsSweeper {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final ItemStorage itemStorage;
+
+    private final ItemService itemService;
+
+    @Scheduled(fixedDelayString = "${shareit-server.item-bookings.sweep-interval:PT1M}")
+    public void sweep() {
+        List<Long> itemIds;
+        do {
+            itemIds = itemStorage.findIdsWithBookingsValidUntilBefore(LocalDateTime.now(),
+                    PageRequest.of(0, BATCH_SIZE));
+            for (long itemId : itemIds) {
+                try {
+                    itemService.refreshItemBookings(itemId);
+                } catch (ItemNotFound e) {
+                    // Вещь удалили между выборкой и пересчётом
+                }
+            }
+        } while (itemIds.size() == BATCH_SIZE);
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.item.services;
+
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.item.dto.IntervalDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Занятость вещи в окне [from, to): слитые непересекающиеся интервалы бронирований,
+// отсортированные по началу и хранящиеся в двух параллельных массивах
+class ItemOccupancy {
+
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final LocalDateTime[] starts;
+    private final LocalDateTime[] ends;
+    private final int size;
+
+    private ItemOccupancy(LocalDateTime from, LocalDateTime to, LocalDateTime[] starts, LocalDateTime[] ends, int size) {
+        this.from = from;
+        this.to = to;
+        this.starts = starts;
+        this.ends = ends;
+        this.size = size;
+    }
+
+    // bookings должны быть отсортированы по start
+    static ItemOccupancy of(List<BookingDto> bookings, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime[] starts = new LocalDateTime[bookings.size()];
+        LocalDateTime[] ends = new LocalDateTime[bookings.size()];
+        int size = 0;
+        for (BookingDto booking : bookings) {
+            LocalDateTime start = booking.getStart().isBefore(from) ? from : booking.getStart();
+            LocalDateTime end = booking.getEnd().isAfter(to) ? to : booking.getEnd();
+            if (!start.isBefore(end)) {
+                continue;
+            }
+            if (size > 0 && !start.isAfter(ends[size - 1])) {
+                if (end.isAfter(ends[size - 1])) {
+                    ends[size - 1] = end;
+                }
+            } else {
+                starts[size] = start;
+                ends[size] = end;
+                size++;
+            }
+        }
+        return new ItemOccupancy(from, to, starts, ends, size);
+    }
+
+    List<IntervalDto> busy() {
+        List<IntervalDto> busy = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            busy.add(new IntervalDto(starts[i], ends[i]));
+        }
+        return busy;
+    }
+
+    List<IntervalDto> free() {
+        List<IntervalDto> free = new ArrayList<>(size + 1);
+        LocalDateTime cursor = from;
+        for (int i = 0; i < size; i++) {
+            if (cursor.isBefore(starts[i])) {
+                free.add(new IntervalDto(cursor, starts[i]));
+            }
+            cursor = ends[i];
+        }
+        if (cursor.isBefore(to)) {
+            free.add(new IntervalDto(cursor, to));
+        }
+        return free;
+    }
+}
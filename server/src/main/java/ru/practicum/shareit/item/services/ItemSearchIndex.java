@@ -0,0 +1,296 @@
+package ru.practicum.shareit.item.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.repositories.ItemStorage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Инвертированный индекс по триграммам названия и описания вещей.
+// Документ получает порядковый номер при каждой записи, поэтому списки номеров в триграммах
+// растут только в конец и остаются отсортированными; старые номера помечаются удалёнными.
+// Находит то же, что LIKE-поиск ItemStorage.searchAvailableByLike, в том же порядке.
+// С shareit-server.item-search.index-enabled=false не строится, поиск целиком уходит в базу
+@Component
+public class ItemSearchIndex {
+
+    private static final int MIN_COMPACT_SIZE = 1024;
+
+    private static final Comparator<ItemDto> BY_ID = Comparator.comparingLong(ItemDto::getId);
+
+    private final ItemStorage itemStorage;
+
+    private final boolean enabled;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready;
+
+    // По порядковому номеру: вещь и её название/описание в нижнем регистре, null - удалён
+    private ItemDto[] items = new ItemDto[16];
+    private String[] names = new String[16];
+    private String[] descriptions = new String[16];
+    private int size;
+    private int liveSize;
+
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    public ItemSearchIndex(ItemStorage itemStorage) {
+        this(itemStorage, true);
+    }
+
+    @Autowired
+    public ItemSearchIndex(ItemStorage itemStorage,
+                           @Value("${shareit-server.item-search.index-enabled:true}") boolean enabled) {
+        this.itemStorage = itemStorage;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            clear();
+            for (ItemDto item : itemStorage.findAllItemDtos()) {
+                add(item);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Пока индекс не построен, поиск идёт через базу
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void put(ItemDto item) {
+        afterCommit(() -> {
+            delete(item.getId());
+            add(item);
+        });
+    }
+
+    public void remove(long itemId) {
+        afterCommit(() -> delete(itemId));
+    }
+
+    // Вещи владельца удаляются из базы каскадом вместе с ним, поэтому их ID берём до удаления
+    public void removeOwner(long ownerId) {
+        if (!enabled) {
+            return;
+        }
+        List<Long> itemIds = itemStorage.findIdsByOwnerId(ownerId);
+        afterCommit(() -> itemIds.forEach(this::delete));
+    }
+
+    // Индекс меняется только после коммита транзакции, чтобы откат не оставил в нём лишних
+    // или пропавших вещей; вне транзакции - сразу
+    private void afterCommit(Runnable change) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Та же семантика, что и у LIKE '%text%' по названию или описанию доступных вещей:
+    // сначала совпадения в названии, внутри групп - по возрастанию ID
+    public List<ItemDto> search(String text, int offset, int limit) {
+        String query = text.toLowerCase(Locale.ROOT);
+        List<ItemDto> byName = new ArrayList<>();
+        List<ItemDto> byDescription = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            int[] candidates = candidates(query);
+            int count = candidates == null ? size : candidates.length;
+            for (int i = 0; i < count; i++) {
+                int ordinal = candidates == null ? i : candidates[i];
+                ItemDto item = items[ordinal];
+                if (item == null || !Boolean.TRUE.equals(item.getAvailable())) {
+                    continue;
+                }
+                if (names[ordinal].contains(query)) {
+                    byName.add(item);
+                } else if (descriptions[ordinal].contains(query)) {
+                    byDescription.add(item);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        byName.sort(BY_ID);
+        byDescription.sort(BY_ID);
+        byName.addAll(byDescription);
+        if (offset >= byName.size()) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(byName.subList(offset, Math.min(byName.size(), offset + limit)));
+    }
+
+    // Номера документов, содержащих все триграммы запроса; null - запрос короче триграммы, смотрим все
+    private int[] candidates(String query) {
+        if (query.length() < 3) {
+            return null;
+        }
+        List<Postings> lists = new ArrayList<>();
+        for (int i = 0; i + 3 <= query.length(); i++) {
+            Postings list = postings.get(trigram(query, i));
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        int[] result = Arrays.copyOf(lists.get(0).ordinals, lists.get(0).size);
+        int resultSize = result.length;
+        for (int i = 1; i < lists.size() && resultSize > 0; i++) {
+            resultSize = intersect(result, resultSize, lists.get(i));
+        }
+        return Arrays.copyOf(result, resultSize);
+    }
+
+    // Пересечение двух отсортированных списков, результат пишется в начало target
+    private static int intersect(int[] target, int targetSize, Postings other) {
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < targetSize && j < other.size) {
+            if (target[i] < other.ordinals[j]) {
+                i++;
+            } else if (target[i] > other.ordinals[j]) {
+                j++;
+            } else {
+                target[k++] = target[i];
+                i++;
+                j++;
+            }
+        }
+        return k;
+    }
+
+    private void add(ItemDto item) {
+        if (size == items.length) {
+            int capacity = size * 2;
+            items = Arrays.copyOf(items, capacity);
+            names = Arrays.copyOf(names, capacity);
+            descriptions = Arrays.copyOf(descriptions, capacity);
+        }
+        int ordinal = size++;
+        items[ordinal] = item;
+        names[ordinal] = lower(item.getName());
+        descriptions[ordinal] = lower(item.getDescription());
+        ordinals.put(item.getId(), ordinal);
+        liveSize++;
+        index(names[ordinal], ordinal);
+        index(descriptions[ordinal], ordinal);
+    }
+
+    private void delete(long itemId) {
+        Integer ordinal = ordinals.remove(itemId);
+        if (ordinal != null) {
+            items[ordinal] = null;
+            names[ordinal] = null;
+            descriptions[ordinal] = null;
+            liveSize--;
+        }
+    }
+
+    // Больше половины номеров удалено - пересобираем индекс из живых документов
+    private void compactIfSparse() {
+        if (size < MIN_COMPACT_SIZE || liveSize >= size / 2) {
+            return;
+        }
+        List<ItemDto> live = new ArrayList<>(liveSize);
+        for (int i = 0; i < size; i++) {
+            if (items[i] != null) {
+                live.add(items[i]);
+            }
+        }
+        clear();
+        live.forEach(this::add);
+    }
+
+    private void clear() {
+        items = new ItemDto[16];
+        names = new String[16];
+        descriptions = new String[16];
+        size = 0;
+        liveSize = 0;
+        ordinals.clear();
+        postings.clear();
+    }
+
+    private void index(String text, int ordinal) {
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            postings.computeIfAbsent(trigram(text, i), key -> new Postings()).add(ordinal);
+        }
+    }
+
+    private static long trigram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    private static String lower(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    // Отсортированный по возрастанию список номеров документов без повторов
+    private static final class Postings {
+
+        private int[] ordinals = new int[4];
+        private int size;
+
+        private void add(int ordinal) {
+            if (size > 0 && ordinals[size - 1] == ordinal) {
+                return;
+            }
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            ordinals[size++] = ordinal;
+        }
+    }
+}
@@ -1,14 +1,18 @@
 package ru.practicum.shareit.item.services;
 
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.comment.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemBatchResultDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemResponseDto;
 import ru.practicum.shareit.item.exceptions.ItemNotFound;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.exceptions.UserNotBooker;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
@@ -16,6 +20,8 @@ public interface ItemService {
 
     ItemDto createItem(ItemDto itemDto, long userId) throws NotFoundException;
 
+    List<ItemBatchResultDto> createItems(List<ItemDto> itemDtos, long userId) throws NotFoundException;
+
     ItemDto updateItem(ItemDto itemDto, long itemId, long userId) throws ItemNotFound, NotFoundException;
 
     void deleteItem(long itemId) throws ItemNotFound;
@@ -30,8 +36,15 @@ public interface ItemService {
 
     Item checkItem(long itemId);
 
+    Item lockItem(long itemId) throws ItemNotFound;
+
     CommentDto postComment(long itemId, long userId, CommentDto text)
             throws NotFoundException, ItemNotFound, UserNotBooker;
 
     List<CommentDto> getAllCommentsByItem(long itemId);
+
+    void refreshItemBookings(long itemId) throws ItemNotFound;
+
+    ItemAvailabilityDto getItemAvailability(long itemId, long userId, LocalDateTime from, LocalDateTime to)
+            throws ItemNotFound, NotFoundException, BadRequestException;
 }
@@ -1,18 +1,28 @@
 package ru.practicum.shareit.item.services;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.enums.BookingStatus;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repositories.BookingStorage;
+import ru.practicum.shareit.datasource.ReplicaRoutingDataSource;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.comment.Comment;
 import ru.practicum.shareit.item.comment.CommentDto;
 import ru.practicum.shareit.item.comment.CommentMapper;
 import ru.practicum.shareit.item.comment.CommentStorage;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemBatchResultDto;
+import ru.practicum.shareit.item.dto.ItemBookingsDto;
+import ru.practicum.shareit.item.dto.ItemDetailsDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemResponseDto;
 import ru.practicum.shareit.item.exceptions.ItemNotFound;
@@ -29,14 +39,26 @@ import ru.practicum.shareit.user.services.UserService;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor // Создает конструктор из тех полей которые нужны
+@Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
 
+    public static final String ITEMS_CACHE = "items";
+
+    public static final String ITEM_BOOKINGS_CACHE = "itemBookings";
+
     private final ItemStorage itemStorage; // Если стоит final для неинициализированного поля то конструктор нужен обязательно
     private final UserService userService;
     private final BookingStorage bookingStorage;
@@ -44,8 +66,12 @@ public class ItemServiceImpl implements ItemService {
 
     private final RequestStorage requestStorage;
 
+    private final ItemSearchIndex itemSearchIndex;
+
+    private final CacheManager cacheManager;
 
     @Override
+    @Transactional
     public ItemDto createItem(ItemDto itemDto, long userId) throws BadRequestException, NotFoundException {
         User owner = userService.checkUser(userId);
         Item item;
@@ -59,24 +85,78 @@ public class ItemServiceImpl implements ItemService {
                 throw new NotFoundException(String.format("ItemRequest with ID: %s not found", itemDto.getRequestId()));
             }
         }
-        if (item.getAvailable() == null) {
-            throw new BadRequestException(String.format("Available not exist - %s", item.getAvailable()));
+        String error = checkNewItem(itemDto);
+        if (error != null) {
+            throw new BadRequestException(error);
         }
-        if (item.getName() == null || item.getName().isEmpty()) {
-            throw new BadRequestException(String.format("Name not exist - %s", item.getName()));
+        itemStorage.save(item);
+        ItemDto savedItem = ItemMapper.toItemDto(item);
+        itemSearchIndex.put(savedItem);
+        return savedItem;
+    }
+
+    // Владелец и запросы ищутся один раз на весь пакет, вещи сохраняются одним saveAll.
+    // Строки с ошибками не сохраняются и не мешают остальным
+    @Override
+    @Transactional
+    public List<ItemBatchResultDto> createItems(List<ItemDto> itemDtos, long userId) throws NotFoundException {
+        User owner = userService.checkUser(userId);
+        Set<Long> requestIds = itemDtos.stream()
+                .map(ItemDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, ItemRequest> requests = requestStorage.findAllById(requestIds).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+
+        String[] errors = new String[itemDtos.size()];
+        Map<Integer, Item> items = new LinkedHashMap<>();
+        for (int i = 0; i < itemDtos.size(); i++) {
+            ItemDto itemDto = itemDtos.get(i);
+            Long requestId = itemDto.getRequestId();
+            if (requestId != null && !requests.containsKey(requestId)) {
+                errors[i] = String.format("ItemRequest with ID: %s not found", requestId);
+                continue;
+            }
+            errors[i] = checkNewItem(itemDto);
+            if (errors[i] == null) {
+                items.put(i, ItemMapper.toItem(itemDto, owner, requestId == null ? null : requests.get(requestId)));
+            }
         }
-        if (item.getDescription() == null || item.getDescription().isEmpty()) {
-            throw new BadRequestException(String.format("Description not exist - %s", item.getDescription()));
+        itemStorage.saveAll(items.values());
+
+        List<ItemBatchResultDto> results = new ArrayList<>(itemDtos.size());
+        for (int i = 0; i < itemDtos.size(); i++) {
+            Item item = items.get(i);
+            if (item == null) {
+                results.add(new ItemBatchResultDto(i, null, errors[i]));
+                continue;
+            }
+            ItemDto savedItem = ItemMapper.toItemDto(item);
+            itemSearchIndex.put(savedItem);
+            results.add(new ItemBatchResultDto(i, savedItem, null));
         }
-        itemStorage.save(item);
-        return ItemMapper.toItemDto(item);
+        return results;
+    }
+
+    private static String checkNewItem(ItemDto itemDto) {
+        if (itemDto.getAvailable() == null) {
+            return String.format("Available not exist - %s", itemDto.getAvailable());
+        }
+        if (itemDto.getName() == null || itemDto.getName().isEmpty()) {
+            return String.format("Name not exist - %s", itemDto.getName());
+        }
+        if (itemDto.getDescription() == null || itemDto.getDescription().isEmpty()) {
+            return String.format("Description not exist - %s", itemDto.getDescription());
+        }
+        return null;
     }
 
     @Override
+    @Transactional
     public ItemDto updateItem(ItemDto itemDto, long itemId, long userId) throws NotFoundException {
         Item item = checkItem(itemId);
         User owner = userService.checkUser(userId);
-        if (item.getOwner().equals(owner)) {
+        if (item.getOwner().getId().equals(owner.getId())) {
             if (itemDto.getAvailable() != null) {
                 item.setAvailable(itemDto.getAvailable());
             }
@@ -87,16 +167,23 @@ public class ItemServiceImpl implements ItemService {
                 item.setDescription(itemDto.getDescription());
             }
             itemStorage.save(item);
-            return ItemMapper.toItemDto(item);
+            evict(ITEMS_CACHE, itemId);
+            ItemDto savedItem = ItemMapper.toItemDto(item);
+            itemSearchIndex.put(savedItem);
+            return savedItem;
         } else {
             throw new NotFoundException(String.format("User by ID: %s - is not Owner of this Item", userId));
         }
     }
 
     @Override
+    @Transactional
     public void deleteItem(long itemId) {
         Item item = checkItem(itemId);
         itemStorage.delete(item);
+        evict(ITEMS_CACHE, itemId);
+        evict(ITEM_BOOKINGS_CACHE, itemId);
+        itemSearchIndex.remove(itemId);
     }
 
     @Override
@@ -109,40 +196,159 @@ public class ItemServiceImpl implements ItemService {
     @Override
     public ItemResponseDto findItemById(long itemId,
                                         long userId) {
-        Item item = checkItem(itemId);
+        ItemDetailsDto details = getItemDetails(itemId);
         User user = userService.checkUser(userId);
-        List<CommentDto> comments = CommentMapper
-                .toCommentDtos(commentStorage.getCommentsByItem_idOrderByCreatedDesc(itemId));
-        if (user.equals(item.getOwner())) {
-            Booking lastBooking = bookingStorage.findFirstByItem_idAndEndBeforeOrderByEndDesc(itemId, LocalDateTime.now());
-            Booking nextBooking = bookingStorage.findFirstByItem_idAndStartAfterOrderByStartDesc(itemId, LocalDateTime.now());
-            return ItemMapper.toItemResponseDto(item, lastBooking, nextBooking, comments);
+        if (user.getId() == details.getOwnerId()) {
+            ItemBookingsDto bookings = getItemBookings(itemId);
+            return ItemMapper.toItemResponseDtoFromDetails(details, bookings.getLastBooking(), bookings.getNextBooking());
+        }
+        return ItemMapper.toItemResponseDtoFromDetails(details, null, null);
+    }
+
+    // Вещь с комментариями: из кэша, при промахе - из основной базы
+    private ItemDetailsDto getItemDetails(long itemId) {
+        Cache cache = cacheManager.getCache(ITEMS_CACHE);
+        ItemDetailsDto details = cache.get(itemId, ItemDetailsDto.class);
+        if (details == null) {
+            ReplicaRoutingDataSource.readFromPrimary();
+            Item item = checkItem(itemId);
+            List<CommentDto> comments = CommentMapper
+                    .toCommentDtos(commentStorage.getCommentsByItem_idOrderByCreatedDesc(itemId));
+            details = new ItemDetailsDto(item.getId(), item.getName(), item.getDescription(), item.getAvailable(),
+                    item.getOwner().getId(), comments);
+            if (!ReplicaRoutingDataSource.isReadFromReplica()) {
+                cache.put(itemId, details);
+            }
+        }
+        return details;
+    }
+
+    // Последнее и следующее бронирование: из кэша, пока не наступил validUntil, при промахе - из строки вещи
+    private ItemBookingsDto getItemBookings(long itemId) {
+        Cache cache = cacheManager.getCache(ITEM_BOOKINGS_CACHE);
+        LocalDateTime now = LocalDateTime.now();
+        ItemBookingsDto bookings = cache.get(itemId, ItemBookingsDto.class);
+        if (bookings == null || !bookings.isValidAt(now)) {
+            ReplicaRoutingDataSource.readFromPrimary();
+            bookings = getMaterializedBookings(List.of(checkItem(itemId)), now).get(itemId);
+            if (!ReplicaRoutingDataSource.isReadFromReplica()) {
+                cache.put(itemId, bookings);
+            }
+        }
+        return bookings;
+    }
+
+    // Бронирования по ID из строк вещей одним запросом. Вещи, у которых граница уже наступила, а планировщик
+    // до них ещё не дошёл, или бронирование удалено вместе с пользователем, считаются запросами по бронированиям
+    private Map<Long, ItemBookingsDto> getMaterializedBookings(List<Item> items, LocalDateTime now) {
+        Set<Long> bookingIds = items.stream()
+                .filter(item -> isMaterializedValidAt(item, now))
+                .flatMap(item -> Stream.of(item.getLastBookingId(), item.getNextBookingId()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, BookingDto> bookings = bookingIds.isEmpty() ? Collections.emptyMap()
+                : bookingStorage.findAllBookingDtosByIds(bookingIds).stream()
+                .collect(Collectors.toMap(BookingDto::getId, Function.identity()));
+        Map<Long, ItemBookingsDto> result = new HashMap<>();
+        List<Long> staleItemIds = new ArrayList<>();
+        for (Item item : items) {
+            if (isMaterializedValidAt(item, now)
+                    && (item.getLastBookingId() == null || bookings.containsKey(item.getLastBookingId()))
+                    && (item.getNextBookingId() == null || bookings.containsKey(item.getNextBookingId()))) {
+                result.put(item.getId(), new ItemBookingsDto(
+                        item.getLastBookingId() == null ? null : bookings.get(item.getLastBookingId()),
+                        item.getNextBookingId() == null ? null : bookings.get(item.getNextBookingId()),
+                        item.getBookingsValidUntil()));
+            } else {
+                staleItemIds.add(item.getId());
+            }
+        }
+        if (!staleItemIds.isEmpty()) {
+            Map<Long, BookingDto> lastBookings = bookingStorage.findLastBookingsByItemIds(staleItemIds, now).stream()
+                    .collect(Collectors.toMap(BookingDto::getItemId, Function.identity(), (first, second) -> first));
+            Map<Long, BookingDto> nextBookings = bookingStorage.findNextBookingsByItemIds(staleItemIds, now).stream()
+                    .collect(Collectors.toMap(BookingDto::getItemId, Function.identity(), (first, second) -> first));
+            // Не кэшируем дольше текущего момента - планировщик скоро обновит строку
+            staleItemIds.forEach(itemId -> result.put(itemId,
+                    new ItemBookingsDto(lastBookings.get(itemId), nextBookings.get(itemId), now)));
+        }
+        return result;
+    }
+
+    private static boolean isMaterializedValidAt(Item item, LocalDateTime now) {
+        return item.getBookingsValidUntil() == null || now.isBefore(item.getBookingsValidUntil());
+    }
+
+    // Вызывается в транзакции изменения бронирования и планировщиком; строка вещи блокируется,
+    // чтобы пересчёты по одной вещи не перезаписывали друг друга
+    @Override
+    @Transactional
+    public void refreshItemBookings(long itemId) throws ItemNotFound {
+        lockItem(itemId);
+        LocalDateTime now = LocalDateTime.now();
+        Booking lastBooking = bookingStorage.findFirstByItem_idAndEndBeforeOrderByEndDesc(itemId, now);
+        Booking nextBooking = bookingStorage.findFirstByItem_idAndStartAfterOrderByStartDesc(itemId, now);
+        // Последнее сменится, когда закончится ближайшее текущее или будущее бронирование,
+        // следующее - когда начнётся само
+        LocalDateTime validUntil = bookingStorage.findNearestEndAfter(itemId, now);
+        if (nextBooking != null && (validUntil == null || nextBooking.getStart().isBefore(validUntil))) {
+            validUntil = nextBooking.getStart();
+        }
+        itemStorage.updateBookings(itemId,
+                lastBooking == null ? null : lastBooking.getId(),
+                nextBooking == null ? null : nextBooking.getId(),
+                validUntil);
+        evict(ITEM_BOOKINGS_CACHE, itemId);
+    }
+
+    // Сбрасываем сразу и ещё раз после коммита, чтобы параллельное чтение не закэшировало старые данные
+    private void evict(String cacheName, long itemId) {
+        Cache cache = cacheManager.getCache(cacheName);
+        cache.evict(itemId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.evict(itemId);
+                }
+            });
         }
-        return ItemMapper.toItemResponseDto(item, null, null, comments);
     }
 
     @Override
     public List<ItemResponseDto> findAllItemsByUserId(long userId, Integer from, Integer size) {
-        List<ItemResponseDto> itemResponseDtos = new ArrayList<>();
         User owner = userService.checkUser(userId);
-        Page<Item> items = itemStorage.findAllByOwnerIdOrderByIdAsc(owner.getId(), PageRequest.of(from, size));
-        for (Item item : items) {
-            List<CommentDto> comments = CommentMapper
-                    .toCommentDtos(commentStorage.getCommentsByItem_idOrderByCreatedDesc(item.getId()));
-            itemResponseDtos.add(ItemMapper.toItemResponseDto(item,
-                    bookingStorage.findFirstByItem_idAndEndBeforeOrderByEndDesc(item.getId(), LocalDateTime.now()),
-                    bookingStorage.findFirstByItem_idAndStartAfterOrderByStartDesc(item.getId(), LocalDateTime.now()),
-                    comments));
+        List<Item> items = itemStorage.findAllByOwnerIdOrderByIdAsc(owner.getId(), PageRequest.of(from, size))
+                .toList();
+        if (items.isEmpty()) {
+            return Collections.emptyList();
         }
-        return itemResponseDtos;
+        // Бронирования и комментарии для всей страницы собираем двумя запросами, а не по запросу на каждую вещь
+        List<Long> itemIds = items.stream().map(Item::getId).collect(Collectors.toList());
+        Map<Long, ItemBookingsDto> bookings = getMaterializedBookings(items, LocalDateTime.now());
+        Map<Long, List<CommentDto>> comments = commentStorage.findAllByItemIdsOrderByCreatedDesc(itemIds).stream()
+                .collect(Collectors.groupingBy(CommentDto::getItemId));
+        return items.stream()
+                .map(item -> ItemMapper.toItemResponseDtoFromDtos(item,
+                        bookings.get(item.getId()).getLastBooking(),
+                        bookings.get(item.getId()).getNextBooking(),
+                        comments.getOrDefault(item.getId(), Collections.emptyList())))
+                .collect(Collectors.toList());
     }
 
     @Override
     public List<ItemDto> searchItemsByNameAndDescription(String text, Integer from, Integer size) {
         if (!text.isEmpty()) {
-            text = text.toLowerCase();
-            return itemStorage.findAllByNameAndDescriptionLowerCase(text, text, PageRequest.of(from, size)).stream()
-                    .map(ItemMapper::toItemDto).collect(Collectors.toList());
+            if (itemSearchIndex.isReady()) {
+                return itemSearchIndex.search(text, from * size, size);
+            }
+            // Пока индекс строится, база ищет тем же LIKE, что и индекс, чтобы выдача не менялась
+            // после старта; без индекса работает полнотекстовый поиск базы
+            PageRequest page = PageRequest.of(from, size);
+            List<Item> items = itemSearchIndex.isEnabled()
+                    ? itemStorage.searchAvailableByLike(text, page)
+                    : itemStorage.searchAvailable(text, page);
+            return items.stream().map(ItemMapper::toItemDto).collect(Collectors.toList());
         }
         return Collections.emptyList();
     }
@@ -157,6 +363,14 @@ public class ItemServiceImpl implements ItemService {
         }
     }
 
+    @Override
+    @Transactional
+    public Item lockItem(long itemId) throws ItemNotFound {
+        return itemStorage.findByIdForUpdate(itemId)
+                .orElseThrow(() -> new ItemNotFound("Item by ID: %s  - not found", itemId));
+    }
+
+    @Transactional
     public CommentDto postComment(long itemId, long userId, CommentDto commentDto)
             throws UserNotBooker, ItemNullParametr {
         if (commentDto.getText().isEmpty()) {
@@ -175,6 +389,7 @@ public class ItemServiceImpl implements ItemService {
                 comment.setItem(item);
                 comment.setText(commentDto.getText());
                 comment = commentStorage.save(comment);
+                evict(ITEMS_CACHE, itemId);
                 return CommentMapper.toCommentDto(comment);
             }
             throw new BadRequestException("Booking bad status");
@@ -190,6 +405,20 @@ public class ItemServiceImpl implements ItemService {
         return comments.stream().map(CommentMapper::toCommentDto).collect(Collectors.toList());
     }
 
+    @Override
+    public ItemAvailabilityDto getItemAvailability(long itemId, long userId, LocalDateTime from, LocalDateTime to)
+            throws BadRequestException {
+        if (!from.isBefore(to)) {
+            throw new BadRequestException("Availability wrong Time");
+        }
+        userService.checkUser(userId);
+        Item item = checkItem(itemId);
+        List<BookingDto> bookings = bookingStorage.findAllByItemIdAndStatusBetween(
+                item.getId(), BookingStatus.APPROVED, from, to);
+        ItemOccupancy occupancy = ItemOccupancy.of(bookings, from, to);
+        return new ItemAvailabilityDto(item.getId(), from, to, occupancy.busy(), occupancy.free());
+    }
+
     public static Boolean checkPaging(Integer from, Integer size) throws BadRequestException {
         if (from == null && size == null) {
             return false;
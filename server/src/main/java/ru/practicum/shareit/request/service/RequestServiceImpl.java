@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.ItemForRequestDto;
@@ -18,13 +19,15 @@ import ru.practicum.shareit.request.repositories.RequestStorage;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.services.UserService;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class RequestServiceImpl implements RequestService {
 
     private final RequestStorage requestStorage;
@@ -32,6 +35,7 @@ public class RequestServiceImpl implements RequestService {
     private final UserService userService;
 
     @Override
+    @Transactional
     public ItemRequestDto createRequest(ItemRequestDto itemRequestDto, long userId)
             throws BadRequestException, NotFoundException {
         if (itemRequestDto.getDescription() == null || itemRequestDto.getDescription().isEmpty()) {
@@ -82,15 +86,16 @@ public class RequestServiceImpl implements RequestService {
     }
 
     public List<RequestWithResponseDto> getRequestWithResponseDto(List<ItemRequest> itemRequests) {
-        List<RequestWithResponseDto> requestWithResponseDtos = new ArrayList<>();
-        for (ItemRequest itemRequest : itemRequests) {
-            List<Item> items = itemStorage.findAllByRequest_IdOrderByRequestIdDesc(itemRequest.getId());
-            List<ItemForRequestDto> requests = items.stream()
-                    .map(ItemMapper::toItemForRequestDto)
-                    .collect(Collectors.toList());
-            RequestWithResponseDto request = RequestMapper.toRequestWithResponseDto(itemRequest, requests);
-            requestWithResponseDtos.add(request);
+        if (itemRequests.isEmpty()) {
+            return Collections.emptyList();
         }
-        return requestWithResponseDtos;
+        // Ответы на все запросы страницы получаем одним запросом и раскладываем по ID запроса
+        List<Long> requestIds = itemRequests.stream().map(ItemRequest::getId).collect(Collectors.toList());
+        Map<Long, List<ItemForRequestDto>> responses = itemStorage.findAllForRequestsByRequestIds(requestIds).stream()
+                .collect(Collectors.groupingBy(ItemForRequestDto::getRequestId));
+        return itemRequests.stream()
+                .map(itemRequest -> RequestMapper.toRequestWithResponseDto(itemRequest,
+                        responses.getOrDefault(itemRequest.getId(), Collections.emptyList())))
+                .collect(Collectors.toList());
     }
 }
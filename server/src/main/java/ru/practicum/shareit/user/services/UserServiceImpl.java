@@ -1,10 +1,17 @@
 package ru.practicum.shareit.user.services;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.datasource.ReplicaRoutingDataSource;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.services.ItemSearchIndex;
+import ru.practicum.shareit.item.services.ItemServiceImpl;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
@@ -18,8 +25,14 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
 
+    public static final String USERS_CACHE = "users";
+
     private final UserStorage userStorage;
 
+    private final ItemSearchIndex itemSearchIndex;
+
+    private final CacheManager cacheManager;
+
     @Override
     @Transactional
     public UserDto createUser(UserDto userDto) throws BadRequestException {
@@ -34,7 +47,10 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public UserDto updateUser(UserDto userDto, long userId) {
-        User user = checkUser(userId);
+        evict(USERS_CACHE, userId);
+        // Имя автора в закэшированных комментариях
+        evict(ItemServiceImpl.ITEMS_CACHE, null);
+        User user = findUser(userId);
         if (userDto.getEmail() != null) {
             user.setEmail(userDto.getEmail());
         }
@@ -48,7 +64,12 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public void deleteUser(long userId) {
-        User user = checkUser(userId);
+        evict(USERS_CACHE, userId);
+        // Вещи, комментарии и бронирования пользователя удаляются каскадом в базе
+        evict(ItemServiceImpl.ITEMS_CACHE, null);
+        evict(ItemServiceImpl.ITEM_BOOKINGS_CACHE, null);
+        User user = findUser(userId);
+        itemSearchIndex.removeOwner(userId);
         userStorage.delete(user);
     }
 
@@ -65,8 +86,40 @@ public class UserServiceImpl implements UserService {
         return UserMapper.toUserDto(user);
     }
 
+    // Закэшированный пользователь общий для всех запросов: его нельзя менять,
+    // изменения идут через updateUser, который читает пользователя из базы и сбрасывает кэш.
+    // При промахе читаем из основной базы, прочитанное с реплики не кэшируем
     @Override
     public User checkUser(long userId) throws NotFoundException {
+        Cache cache = cacheManager.getCache(USERS_CACHE);
+        User user = cache.get(userId, User.class);
+        if (user == null) {
+            ReplicaRoutingDataSource.readFromPrimary();
+            user = findUser(userId);
+            if (!ReplicaRoutingDataSource.isReadFromReplica()) {
+                cache.put(userId, user);
+            }
+        }
+        return user;
+    }
+
+    // Сбрасываем сразу и ещё раз после коммита, чтобы параллельное чтение не закэшировало старые данные;
+    // без ключа сбрасывается весь кэш
+    private void evict(String cacheName, Long key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        Runnable eviction = key == null ? cache::clear : () -> cache.evict(key);
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    private User findUser(long userId) throws NotFoundException {
         return userStorage.findById(userId)
                 .orElseThrow(() -> new NotFoundException(String.format("User by ID: %s not found", userId)));
     }
@@ -1,5 +1,3 @@
-drop table if exists REQUESTS, COMMENTS, BOOKINGS, ITEMS, USERS;
-
 create table if not exists USERS
 (
     ID    bigint generated by default as identity not null primary key,
@@ -0,0 +1,21 @@
+-- Бронирования пользователя: фильтр по BOOKER_ID, сортировка START_DATE desc, ID desc
+create index if not exists IDX_BOOKINGS_BOOKER_START on BOOKINGS (BOOKER_ID, START_DATE, ID);
+
+-- Бронирования вещи: следующее бронирование, пересечения, календарь занятости,
+-- бронирования владельца (через ITEMS.OWNER_ID)
+create index if not exists IDX_BOOKINGS_ITEM_START on BOOKINGS (ITEM_ID, START_DATE);
+
+-- Последнее бронирование вещи: max(END_DATE) < now
+create index if not exists IDX_BOOKINGS_ITEM_END on BOOKINGS (ITEM_ID, END_DATE);
+
+-- Вещи владельца по порядку ID
+create index if not exists IDX_ITEMS_OWNER on ITEMS (OWNER_ID, ID);
+
+-- Ответы на запросы
+create index if not exists IDX_ITEMS_REQUEST on ITEMS (REQUEST_ID, ID);
+
+-- Комментарии к вещам, новые первыми
+create index if not exists IDX_COMMENTS_ITEM_CREATED on COMMENTS (ITEM_ID, CREATED);
+
+-- Запросы пользователя, новые первыми
+create index if not exists IDX_REQUESTS_REQUESTOR_CREATED on REQUESTS (REQUESTOR, CREATED);
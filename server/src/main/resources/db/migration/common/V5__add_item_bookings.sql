@@ -0,0 +1,11 @@
+-- Последнее и следующее бронирование вещи. Пересчитываются при создании и подтверждении бронирований
+-- и планировщиком, когда наступает BOOKINGS_VALID_UNTIL; null - граница не ожидается
+alter table ITEMS add column if not exists LAST_BOOKING_ID bigint;
+alter table ITEMS add column if not exists NEXT_BOOKING_ID bigint;
+alter table ITEMS add column if not exists BOOKINGS_VALID_UNTIL timestamp without time zone;
+
+-- Вещи с уже существующими бронированиями пересчитает планировщик
+update ITEMS set BOOKINGS_VALID_UNTIL = timestamp '1970-01-01 00:00:00'
+where ID in (select ITEM_ID from BOOKINGS);
+
+create index if not exists IDX_ITEMS_BOOKINGS_VALID_UNTIL on ITEMS (BOOKINGS_VALID_UNTIL);
@@ -0,0 +1 @@
+-- В H2 нет tsvector/GIN: поиск по вещам идёт через LIKE (ItemStorageCustomImpl)
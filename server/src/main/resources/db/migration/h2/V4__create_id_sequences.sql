@@ -0,0 +1,6 @@
+-- Идентификаторы выдаются из последовательностей блоками по 50 (pooled-lo), см. postgresql/V4
+create sequence if not exists USERS_SEQ start with 1 increment by 50;
+create sequence if not exists REQUESTS_SEQ start with 1 increment by 50;
+create sequence if not exists ITEMS_SEQ start with 1 increment by 50;
+create sequence if not exists BOOKINGS_SEQ start with 1 increment by 50;
+create sequence if not exists COMMENTS_SEQ start with 1 increment by 50;
@@ -0,0 +1,8 @@
+-- Полнотекстовый поиск по вещам: название весомее описания
+alter table ITEMS
+    add column if not exists SEARCH_VECTOR tsvector
+        generated always as (setweight(to_tsvector('simple', coalesce(NAME, '')), 'A') ||
+                             setweight(to_tsvector('simple', coalesce(DESCRIPTION, '')), 'B')) stored;
+
+-- В индекс попадают только доступные вещи
+create index if not exists IDX_ITEMS_SEARCH on ITEMS using gin (SEARCH_VECTOR) where AVAILABLE = TRUE;
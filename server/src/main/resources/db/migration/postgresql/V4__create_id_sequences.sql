@@ -0,0 +1,13 @@
+-- Идентификаторы выдаются из последовательностей блоками по 50 (pooled-lo), чтобы Hibernate
+-- мог вставлять строки пачками. Последовательности начинаются после уже выданных id
+create sequence if not exists USERS_SEQ increment by 50;
+create sequence if not exists REQUESTS_SEQ increment by 50;
+create sequence if not exists ITEMS_SEQ increment by 50;
+create sequence if not exists BOOKINGS_SEQ increment by 50;
+create sequence if not exists COMMENTS_SEQ increment by 50;
+
+select setval('USERS_SEQ', coalesce((select max(ID) from USERS), 0) + 1, false);
+select setval('REQUESTS_SEQ', coalesce((select max(ID) from REQUESTS), 0) + 1, false);
+select setval('ITEMS_SEQ', coalesce((select max(ID) from ITEMS), 0) + 1, false);
+select setval('BOOKINGS_SEQ', coalesce((select max(ID) from BOOKINGS), 0) + 1, false);
+select setval('COMMENTS_SEQ', coalesce((select max(ID) from COMMENTS), 0) + 1, false);
@@ -0,0 +1,129 @@
+package ru.practicum.shareit;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.datasource.ReplicaLagMonitor;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.services.UserService;
+
+import javax.persistence.EntityManager;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+// Основная база и реплика - две разные H2 в памяти; отставание реплики задаётся таблицей в ней самой
+@SpringBootTest(properties = {
+        "shareit-server.datasource.replicas[0].url=" + ReplicaRoutingTest.REPLICA_URL,
+        "shareit-server.datasource.lag-query=select SECONDS from REPLICA_LAG",
+        "shareit-server.datasource.max-lag=5s"
+})
+public class ReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:shareit-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        setReplicaLag(0);
+        replicaLagMonitor.checkReplicas();
+    }
+
+    @Test
+    void readOnlyTransactionGoesToReplicaTest() {
+        Assertions.assertTrue(connectionUrl(true).startsWith("jdbc:h2:mem:shareit-replica"));
+    }
+
+    @Test
+    void writeTransactionGoesToPrimaryTest() {
+        Assertions.assertFalse(connectionUrl(false).startsWith("jdbc:h2:mem:shareit-replica"));
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimaryTest() throws SQLException {
+        setReplicaLag(60);
+        replicaLagMonitor.checkReplicas();
+
+        Assertions.assertFalse(connectionUrl(true).startsWith("jdbc:h2:mem:shareit-replica"));
+    }
+
+    @Test
+    void cacheMissReadsPrimaryTest() throws SQLException {
+        // Assign
+        long userId = userService.createUser(new UserDto(0, "Fresh", UUID.randomUUID() + "@email.ru")).getId();
+        setReplicaUser(userId, "Stale");
+
+        // Act
+        UserDto user = userService.findUserById(userId);
+
+        // Assert
+        Assertions.assertEquals("Fresh", user.getName());
+    }
+
+    @Test
+    void valueReadFromReplicaIsNotCachedTest() throws SQLException {
+        // Assign
+        long userId = userService.createUser(new UserDto(0, "Fresh", UUID.randomUUID() + "@email.ru")).getId();
+        setReplicaUser(userId, "Stale");
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+
+        // Act
+        String nameInReadOnlyTransaction = transaction.execute(status -> {
+            // Транзакция уже получила соединение с реплики до промаха кэша
+            Assertions.assertTrue(entityManager.unwrap(Session.class)
+                    .doReturningWork(connection -> connection.getMetaData().getURL())
+                    .startsWith("jdbc:h2:mem:shareit-replica"));
+            return userService.checkUser(userId).getName();
+        });
+
+        // Assert
+        Assertions.assertEquals("Stale", nameInReadOnlyTransaction);
+        Assertions.assertEquals("Fresh", userService.findUserById(userId).getName());
+    }
+
+    private String connectionUrl(boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> entityManager.unwrap(Session.class)
+                .doReturningWork(connection -> connection.getMetaData().getURL()));
+    }
+
+    // Реплика отстала: в ней старая версия пользователя
+    private static void setReplicaUser(long userId, String name) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "test", "test");
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table if not exists USERS " +
+                    "(ID bigint primary key, NAME varchar(255) not null, EMAIL varchar(512) not null)");
+            statement.execute("merge into USERS key (ID) values (" + userId + ", '" + name + "', '"
+                    + userId + "@email.ru')");
+        }
+    }
+
+    private static void setReplicaLag(int seconds) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "test", "test");
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table if not exists REPLICA_LAG (SECONDS int)");
+            statement.execute("delete from REPLICA_LAG");
+            statement.execute("insert into REPLICA_LAG values (" + seconds + ")");
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest // Схема из миграций Flyway, планы запросов через EXPLAIN
+class SchemaIndexTest {
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    // Явные ID не сдвигают identity, поэтому после отката другие тесты видят чистую схему
+    @BeforeEach
+    void setUp() {
+        execute("insert into USERS (ID, NAME, EMAIL) " +
+                "select X, 'user' || X, 'user' || X || '@email.ru' from system_range(1, 100)");
+        execute("insert into REQUESTS (ID, DESCRIPTION, REQUESTOR, CREATED) " +
+                "select X, 'request', mod(X, 100) + 1, now() from system_range(1, 500)");
+        execute("insert into ITEMS (ID, NAME, DESCRIPTION, AVAILABLE, OWNER_ID, REQUEST_ID) " +
+                "select X, 'item', 'description', true, mod(X, 100) + 1, mod(X, 500) + 1 from system_range(1, 1000)");
+        execute("insert into BOOKINGS (ID, START_DATE, END_DATE, ITEM_ID, BOOKER_ID, STATUS) " +
+                "select X, dateadd('DAY', X, now()), dateadd('DAY', X + 1, now()), mod(X, 1000) + 1, mod(X, 100) + 1, " +
+                "'APPROVED' from system_range(1, 5000)");
+        execute("insert into COMMENTS (ID, TEXT, ITEM_ID, AUTHOR_ID, CREATED) " +
+                "select X, 'comment', mod(X, 1000) + 1, mod(X, 100) + 1, now() from system_range(1, 3000)");
+    }
+
+    @Test
+    void bookerBookingsPageUsesBookerStartIndexTest() {
+        assertThat(explain("select * from BOOKINGS B where B.BOOKER_ID = 1 and B.START_DATE < now() " +
+                "order by B.START_DATE desc, B.ID desc"))
+                .contains("IDX_BOOKINGS_BOOKER_START");
+    }
+
+    @Test
+    void lastBookingUsesItemEndIndexTest() {
+        assertThat(explain("select max(B.END_DATE) from BOOKINGS B where B.ITEM_ID = 1 and B.END_DATE < now()"))
+                .contains("IDX_BOOKINGS_ITEM_END");
+    }
+
+    @Test
+    void nextBookingUsesItemStartIndexTest() {
+        assertThat(explain("select max(B.START_DATE) from BOOKINGS B where B.ITEM_ID = 1 and B.START_DATE > now()"))
+                .contains("IDX_BOOKINGS_ITEM_START");
+    }
+
+    @Test
+    void overlapCheckUsesItemStartIndexTest() {
+        assertThat(explain("select 1 from BOOKINGS B where B.ITEM_ID = 1 and B.STATUS = 'APPROVED' " +
+                "and B.START_DATE < now() and B.END_DATE > now()"))
+                .contains("IDX_BOOKINGS_ITEM_START");
+    }
+
+    // H2 сам индексирует внешние ключи, поэтому здесь проверяем только отсутствие полного сканирования
+    @Test
+    void itemsCommentsAndRequestsAvoidTableScanTest() {
+        assertThat(explain("select * from ITEMS I where I.OWNER_ID = 1 order by I.ID"))
+                .doesNotContain("tableScan");
+        assertThat(explain("select * from ITEMS I where I.REQUEST_ID in (1, 2) order by I.ID"))
+                .doesNotContain("tableScan");
+        assertThat(explain("select * from COMMENTS C where C.ITEM_ID in (1, 2) order by C.CREATED desc"))
+                .doesNotContain("tableScan");
+        assertThat(explain("select * from REQUESTS R where R.REQUESTOR = 1 order by R.CREATED desc"))
+                .doesNotContain("tableScan");
+    }
+
+    private void execute(String sql) {
+        testEntityManager.getEntityManager().createNativeQuery(sql).executeUpdate();
+    }
+
+    private String explain(String sql) {
+        return testEntityManager.getEntityManager().createNativeQuery("explain " + sql).getSingleResult().toString();
+    }
+}
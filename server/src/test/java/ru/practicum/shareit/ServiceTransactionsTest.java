@@ -0,0 +1,116 @@
+package ru.practicum.shareit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repositories.BookingStorage;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.comment.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.services.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.services.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Каждый вызов сервиса - одна транзакция и одно соединение из пула,
+// а не по соединению на каждый вызов репозитория
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class ServiceTransactionsTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingStorage bookingStorage;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private long ownerId;
+
+    private long bookerId;
+
+    private long itemId;
+
+    private long bookingId;
+
+    @BeforeEach
+    void setUp() {
+        ownerId = getTestUser();
+        bookerId = getTestUser();
+        itemId = itemService.createItem(new ItemDto(0, "Item", "Description", Boolean.TRUE, null), ownerId)
+                .getId();
+        bookingId = getTestBooking(LocalDateTime.now().minusDays(2));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @Test
+    void getBookingUsesOneConnectionTest() {
+        bookingService.getBooking(bookingId, bookerId);
+
+        Assertions.assertEquals(1, statistics.getConnectCount());
+    }
+
+    @Test
+    void findItemByIdUsesOneConnectionTest() {
+        itemService.findItemById(itemId, ownerId);
+
+        Assertions.assertEquals(1, statistics.getConnectCount());
+    }
+
+    @Test
+    void postCommentUsesOneConnectionTest() {
+        itemService.postComment(itemId, bookerId,
+                new CommentDto(0, "Comment", itemId, null, LocalDateTime.now()));
+
+        Assertions.assertEquals(1, statistics.getConnectCount());
+    }
+
+    @Test
+    void createBookingUsesOneConnectionTest() {
+        LocalDateTime start = LocalDateTime.now().plusDays(10);
+        bookingService.createBooking(new BookingDto(0, itemId, bookerId, start, start.plusDays(1), null), bookerId);
+
+        Assertions.assertEquals(1, statistics.getConnectCount());
+    }
+
+    private long getTestUser() {
+        return userService.createUser(new UserDto(0, "User", UUID.randomUUID() + "@email.ru")).getId();
+    }
+
+    private long getTestBooking(LocalDateTime start) {
+        Item item = new Item();
+        item.setId(itemId);
+        User booker = new User();
+        booker.setId(bookerId);
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStart(start);
+        booking.setEnd(start.plusDays(1));
+        booking.setStatus(BookingStatus.APPROVED);
+        return bookingStorage.save(booking).getId();
+    }
+}
@@ -13,6 +13,7 @@ import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.booking.enums.BookingStatus;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingCursor;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
@@ -32,6 +33,7 @@ import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -136,7 +138,7 @@ public class BookingControllerTest {
 
         Long bookerId = 1L;
 
-        when(bookingService.getAllBookingsByBooker(anyString(), anyLong(), anyInt(), anyInt()))
+        when(bookingService.getAllBookingsByBooker(anyString(), anyLong(), anyInt(), anyInt(), any()))
                 .thenReturn(bookings);
         // Act
         mvc.perform(get("/bookings")
@@ -163,7 +165,7 @@ public class BookingControllerTest {
 
         Long ownerId = 1L;
 
-        when(bookingService.getAllBookingsByOwner(anyString(), anyLong(), anyInt(), anyInt()))
+        when(bookingService.getAllBookingsByOwner(anyString(), anyLong(), anyInt(), anyInt(), any()))
                 .thenReturn(bookings);
         // Act
         mvc.perform(get("/bookings/owner")
@@ -180,6 +182,44 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$[1].booker.id", is(booking2.getBooker().getId()), Long.class));
     }
 
+    @Test
+    public void getAllBookingsByOwnerNextCursorTest() throws Exception {
+        // Assign
+        Booking booking1 = getTestBooking();
+        Booking booking2 = getTestBooking();
+        booking2.setId(2L);
+        List<BookingResponseDto> bookings = List.of(BookingMapper.toBookingResponseDto(booking1), BookingMapper.toBookingResponseDto(booking2));
+        String nextCursor = new BookingCursor(booking2.getStart(), booking2.getId()).encode();
+
+        when(bookingService.getAllBookingsByOwner("ALL", 1L, 0, 2, "cursor"))
+                .thenReturn(bookings);
+        // Act
+        mvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("size", "2")
+                        .param("cursor", "cursor"))
+                // Assert
+                .andExpect(status().isOk())
+                .andExpect(header().string(BookingController.NEXT_CURSOR_HEADER, nextCursor))
+                .andExpect(jsonPath("$[1].id", is(booking2.getId()), Long.class));
+    }
+
+    @Test
+    public void getAllBookingsByBookerLastPageTest() throws Exception {
+        // Assign
+        List<BookingResponseDto> bookings = List.of(BookingMapper.toBookingResponseDto(getTestBooking()));
+
+        when(bookingService.getAllBookingsByBooker(anyString(), anyLong(), anyInt(), anyInt(), any()))
+                .thenReturn(bookings);
+        // Act
+        mvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("size", "2"))
+                // Assert
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(BookingController.NEXT_CURSOR_HEADER));
+    }
+
     private Booking getTestBooking() {
         Booking booking = new Booking();
         booking.setId(1L);
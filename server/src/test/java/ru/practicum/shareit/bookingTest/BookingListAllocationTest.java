@@ -0,0 +1,126 @@
+package ru.practicum.shareit.bookingTest;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.enums.BookingRole;
+import ru.practicum.shareit.booking.enums.BookingState;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingFilter;
+import ru.practicum.shareit.booking.repositories.BookingStorage;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Сравнение выделенной памяти на 1000 строк списка бронирований:
+// управляемые сущности с join fetch против проекции прямо в BookingResponseDto
+@SpringBootTest
+@Transactional
+public class BookingListAllocationTest {
+
+    private static final int ROWS = 1000;
+    private static final int ITEMS = 100;
+    private static final int WARMUP = 5;
+    private static final int RUNS = 5;
+
+    @Autowired
+    private BookingStorage bookingStorage;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void projectionAllocatesLessThanEntitiesTest() {
+        // Assign
+        User owner = getTestUser("owner@");
+        User booker = getTestUser("booker@");
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < ITEMS; i++) {
+            Item item = getTestItem(owner);
+            for (int j = 0; j < ROWS / ITEMS; j++) {
+                getTestBooking(item, booker, start.plusHours(i * ROWS / ITEMS + j));
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        BookingFilter filter = new BookingFilter(BookingRole.BOOKER, booker.getId(), BookingState.ALL,
+                LocalDateTime.now(), null, 0, ROWS);
+
+        // Act
+        long entities = measure(() -> findWithEntities(booker.getId()));
+        long projections = measure(() -> bookingStorage.findBookingResponses(filter));
+
+        // Assert
+        Assertions.assertTrue(projections < entities,
+                String.format("bytes per %d rows: entities %d, projection %d", ROWS, entities, projections));
+    }
+
+    // Как список строился до проекции: сущности с графом item + booker и маппинг в DTO
+    private List<BookingResponseDto> findWithEntities(long bookerId) {
+        return entityManager.createQuery("select B from Booking B join fetch B.item join fetch B.booker " +
+                        "where B.booker.id = ?1 order by B.start desc, B.id desc", Booking.class)
+                .setParameter(1, bookerId)
+                .setMaxResults(ROWS)
+                .getResultList().stream()
+                .map(BookingMapper::toBookingResponseDto)
+                .collect(Collectors.toList());
+    }
+
+    // Минимум выделенных потоком байт за несколько прогонов после прогрева
+    private long measure(Supplier<List<BookingResponseDto>> query) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < WARMUP + RUNS; i++) {
+            entityManager.clear();
+            long before = threads.getThreadAllocatedBytes(threadId);
+            List<BookingResponseDto> bookings = query.get();
+            long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+            Assertions.assertEquals(ROWS, bookings.size());
+            if (i >= WARMUP) {
+                best = Math.min(best, allocated);
+            }
+        }
+        return best;
+    }
+
+    private User getTestUser(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setName("Test User Name");
+        entityManager.persist(user);
+        return user;
+    }
+
+    private Item getTestItem(User owner) {
+        Item item = new Item();
+        item.setName("Test Item Name");
+        item.setDescription("Test Item Description");
+        item.setAvailable(Boolean.TRUE);
+        item.setOwner(owner);
+        entityManager.persist(item);
+        return item;
+    }
+
+    private void getTestBooking(Item item, User booker, LocalDateTime start) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStart(start);
+        booking.setEnd(start.plusMinutes(30));
+        booking.setStatus(BookingStatus.WAITING);
+        entityManager.persist(booking);
+    }
+}
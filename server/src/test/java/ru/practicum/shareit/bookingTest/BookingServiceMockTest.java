@@ -4,15 +4,17 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.enums.BookingRole;
+import ru.practicum.shareit.booking.enums.BookingState;
 import ru.practicum.shareit.booking.enums.BookingStatus;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingFilter;
 import ru.practicum.shareit.booking.repositories.BookingStorage;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
 import ru.practicum.shareit.exception.BadRequestException;
@@ -31,7 +33,6 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.ArgumentMatchers.anyString;
 
 @ExtendWith(MockitoExtension.class)
 public class BookingServiceMockTest {
@@ -83,6 +84,7 @@ public class BookingServiceMockTest {
         Assertions.assertEquals(bookingResponseDto.getBooker().getId(), booking.getBooker().getId());
         Assertions.assertEquals(bookingResponseDto.getItem().getId(), item.getId());
         Assertions.assertEquals(bookingResponseDto.getStatus(), booking.getStatus());
+        Mockito.verify(itemService, Mockito.times(1)).refreshItemBookings(item.getId());
     }
 
     @Test
@@ -160,6 +162,37 @@ public class BookingServiceMockTest {
         assertEquals(thrown.getMessage(), "Item is unavailable");
     }
 
+    @Test
+    public void createBookingErrorOverlapTest() {
+        // Assign
+        User owner = getTestUser();
+        User booker = getTestUser();
+        booker.setId(2L);
+        ItemRequest itemRequest = getTestItemRequest(booker);
+        Item item = getTestItem(owner, itemRequest);
+        Booking booking = getTestBooking(booker, item);
+
+        Mockito.when(userService.checkUser(anyLong()))
+                .thenReturn(booker);
+        Mockito.when(itemService.checkItem(anyLong()))
+                .thenReturn(item);
+        Mockito.when(bookingRepository.findByItemAndBooker(any(Item.class), any(User.class)))
+                .thenReturn(Optional.empty());
+        Mockito.when(bookingRepository.existsByItem_IdAndStatusAndStartBeforeAndEndAfter(
+                        anyLong(), any(BookingStatus.class), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(true);
+
+        // Act
+        BadRequestException thrown = Assertions.assertThrows(BadRequestException.class, () -> {
+            bookingService.createBooking(BookingMapper.toBookingDto(booking), booker.getId());
+        });
+
+        // Assert
+        assertEquals(thrown.getMessage(), "Item is already booked for this time");
+        Mockito.verify(itemService, Mockito.times(1)).lockItem(item.getId());
+        Mockito.verify(bookingRepository, Mockito.never()).save(any(Booking.class));
+    }
+
     @Test
     public void ownerDecisionTest() throws Exception {
         // Assign
@@ -232,6 +265,32 @@ public class BookingServiceMockTest {
         assertEquals(thrown.getMessage(), "Status not WAITING");
     }
 
+    @Test
+    public void ownerDecisionErrorOverlapTest() {
+        // Assign
+        User owner = getTestUser();
+        User booker = getTestUser();
+        booker.setId(2L);
+        ItemRequest itemRequest = getTestItemRequest(booker);
+        Item item = getTestItem(owner, itemRequest);
+        Booking booking = getTestBooking(booker, item);
+
+        Mockito.when(bookingRepository.findById(anyLong()))
+                .thenReturn(Optional.of(booking));
+        Mockito.when(bookingRepository.existsByItem_IdAndStatusAndStartBeforeAndEndAfter(
+                        item.getId(), BookingStatus.APPROVED, booking.getEnd(), booking.getStart()))
+                .thenReturn(true);
+
+        // Act
+        BadRequestException thrown = Assertions.assertThrows(BadRequestException.class, () -> {
+            bookingService.ownerDecision(booking.getId(), owner.getId(), true);
+        });
+
+        // Assert
+        assertEquals(thrown.getMessage(), "Item is already booked for this time");
+        assertEquals(booking.getStatus(), BookingStatus.WAITING);
+    }
+
     @Test
     public void ownerDecisionErrorUserNotOwnerTest() {
         // Assign
@@ -324,11 +383,11 @@ public class BookingServiceMockTest {
 
         Mockito.when(userService.checkUser(anyLong()))
                 .thenReturn(booker);
-        Mockito.when(bookingRepository.findAllByBookerAndStatusFutureOrderByStartDesc(anyLong(), anyString(), anyString()))
-                .thenReturn(List.of(booking1, booking2));
+        Mockito.when(bookingRepository.findBookingResponses(any(BookingFilter.class)))
+                .thenReturn(bookings);
 
         // Act
-        List<BookingResponseDto> actualBookings = bookingService.getAllBookingsByBooker("FUTURE", booker.getId(), 0, 10);
+        List<BookingResponseDto> actualBookings = bookingService.getAllBookingsByBooker("FUTURE", booker.getId(), 0, 10, null);
 
         // Assert
         Assertions.assertNotNull(actualBookings);
@@ -353,11 +412,11 @@ public class BookingServiceMockTest {
 
         Mockito.when(userService.checkUser(anyLong()))
                 .thenReturn(booker);
-        Mockito.when(bookingRepository.findAllByBooker_idAndEndIsAfterAndStartIsBefore(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(List.of(booking1, booking2));
+        Mockito.when(bookingRepository.findBookingResponses(any(BookingFilter.class)))
+                .thenReturn(bookings);
 
         // Act
-        List<BookingResponseDto> actualBookings = bookingService.getAllBookingsByBooker("CURRENT", booker.getId(), 0, 10);
+        List<BookingResponseDto> actualBookings = bookingService.getAllBookingsByBooker("CURRENT", booker.getId(), 0, 10, null);
 
         // Assert
         Assertions.assertNotNull(actualBookings);
@@ -382,17 +441,53 @@ public class BookingServiceMockTest {
 
         Mockito.when(userService.checkUser(anyLong()))
                 .thenReturn(booker);
-        Mockito.when(bookingRepository.findAllByBooker_IdAndEndIsBefore(anyLong(), any(LocalDateTime.class)))
-                .thenReturn(List.of(booking1, booking2));
+        Mockito.when(bookingRepository.findBookingResponses(any(BookingFilter.class)))
+                .thenReturn(bookings);
 
         // Act
-        List<BookingResponseDto> actualBookings = bookingService.getAllBookingsByBooker("PAST", booker.getId(), 0, 10);
+        List<BookingResponseDto> actualBookings = bookingService.getAllBookingsByBooker("PAST", booker.getId(), 0, 10, null);
 
         // Assert
         Assertions.assertNotNull(actualBookings);
         Assertions.assertEquals(bookings.size(), actualBookings.size());
     }
 
+    @Test
+    public void getAllBookingsByBookerPastStatePagingTest() {
+        // Assign
+        ArgumentCaptor<BookingFilter> filterCaptor = ArgumentCaptor.forClass(BookingFilter.class);
+        Mockito.when(bookingRepository.findBookingResponses(filterCaptor.capture()))
+                .thenReturn(List.of());
+
+        // Act
+        bookingService.getAllBookingsByBooker("past", 2L, 3, 5, null);
+
+        // Assert
+        BookingFilter filter = filterCaptor.getValue();
+        Assertions.assertEquals(BookingRole.BOOKER, filter.getRole());
+        Assertions.assertEquals(BookingState.PAST, filter.getState());
+        Assertions.assertEquals(2L, filter.getUserId());
+        Assertions.assertEquals(15, filter.getOffset());
+        Assertions.assertEquals(5, filter.getLimit());
+        Assertions.assertNull(filter.getCursor());
+    }
+
+    @Test
+    public void getAllBookingsByBookerAllStatePagingTest() {
+        // Assign
+        ArgumentCaptor<BookingFilter> filterCaptor = ArgumentCaptor.forClass(BookingFilter.class);
+        Mockito.when(bookingRepository.findBookingResponses(filterCaptor.capture()))
+                .thenReturn(List.of());
+
+        // Act
+        bookingService.getAllBookingsByBooker("ALL", 2L, 3, 5, null);
+
+        // Assert
+        BookingFilter filter = filterCaptor.getValue();
+        Assertions.assertEquals(BookingState.ALL, filter.getState());
+        Assertions.assertEquals(10, filter.getOffset());
+    }
+
     @Test
     public void getAllBookingsByBookerWaitingStateTest() {
         // Assign
@@ -411,11 +506,11 @@ public class BookingServiceMockTest {
 
         Mockito.when(userService.checkUser(anyLong()))
                 .thenReturn(booker);
-        Mockito.when(bookingRepository.findAllByBookerAndStatusOrderByStartDesc(anyLong(), anyString()))
-                .thenReturn(List.of(booking1, booking2));
+        Mockito.when(bookingRepository.findBookingResponses(any(BookingFilter.class)))
+                .thenReturn(bookings);
 
         // Act
-        List<BookingResponseDto> actualBookings = bookingService.getAllBookingsByBooker("WAITING", booker.getId(), 0, 10);
+        List<BookingResponseDto> actualBookings = bookingService.getAllBookingsByBooker("WAITING", booker.getId(), 0, 10, null);
 
         // Assert
         Assertions.assertNotNull(actualBookings);
@@ -440,11 +535,11 @@ public class BookingServiceMockTest {
 
         Mockito.when(userService.checkUser(anyLong()))
                 .thenReturn(booker);
-        Mockito.when(bookingRepository.findAllByBookerAndStatusOrderByStartDesc(anyLong(), anyString()))
-                .thenReturn(List.of(booking1, booking2));
+        Mockito.when(bookingRepository.findBookingResponses(any(BookingFilter.class)))
+                .thenReturn(bookings);
 
         // Act
-        List<BookingResponseDto> actualBookings = bookingService.getAllBookingsByBooker("REJECTED", booker.getId(), 0, 10);
+        List<BookingResponseDto> actualBookings = bookingService.getAllBookingsByBooker("REJECTED", booker.getId(), 0, 10, null);
 
         // Assert
         Assertions.assertNotNull(actualBookings);
@@ -472,13 +567,24 @@ public class BookingServiceMockTest {
 
         // Act
         BadRequestException thrown = Assertions.assertThrows(BadRequestException.class, () -> {
-            List<BookingResponseDto> actualBookings = bookingService.getAllBookingsByBooker("UNSUPPORTED_STATUS", booker.getId(), 0, 10);
+            List<BookingResponseDto> actualBookings = bookingService.getAllBookingsByBooker("UNSUPPORTED_STATUS", booker.getId(), 0, 10, null);
         });
 
         // Assert
         assertEquals(thrown.getMessage(), "Unknown state: UNSUPPORTED_STATUS");
     }
 
+    @Test
+    public void getAllBookingsByBookerErrorWrongCursorTest() {
+        // Act
+        BadRequestException thrown = Assertions.assertThrows(BadRequestException.class, () -> {
+            bookingService.getAllBookingsByBooker("ALL", 1L, 0, 10, "not a cursor");
+        });
+
+        // Assert
+        assertEquals(thrown.getMessage(), "Wrong cursor: not a cursor");
+    }
+
     @Test
     public void getAllBookingsByOwnerTest() throws Exception {
         // Assign
@@ -497,11 +603,11 @@ public class BookingServiceMockTest {
 
         Mockito.when(userService.checkUser(anyLong()))
                 .thenReturn(owner);
-        Mockito.when(bookingRepository.findAllByItemOwnerOrderByStartDesc(any(User.class), any(PageRequest.class)))
-                .thenReturn(new PageImpl<>(List.of(booking1, booking2)));
+        Mockito.when(bookingRepository.findBookingResponses(any(BookingFilter.class)))
+                .thenReturn(bookings);
 
         // Act
-        List<BookingResponseDto> actualBookings = bookingService.getAllBookingsByOwner("ALL", owner.getId(), 0, 10);
+        List<BookingResponseDto> actualBookings = bookingService.getAllBookingsByOwner("ALL", owner.getId(), 0, 10, null);
 
         // Assert
         Assertions.assertNotNull(actualBookings);
@@ -526,11 +632,11 @@ public class BookingServiceMockTest {
 
         Mockito.when(userService.checkUser(anyLong()))
                 .thenReturn(owner);
-        Mockito.when(bookingRepository.findAllByOwnerAndStatusFutureOrderByStartDesc(anyLong(), anyString(), anyString()))
-                .thenReturn(List.of(booking1, booking2));
+        Mockito.when(bookingRepository.findBookingResponses(any(BookingFilter.class)))
+                .thenReturn(bookings);
 
         // Act
-        List<BookingResponseDto> actualBookings = bookingService.getAllBookingsByOwner("FUTURE", owner.getId(), 0, 10);
+        List<BookingResponseDto> actualBookings = bookingService.getAllBookingsByOwner("FUTURE", owner.getId(), 0, 10, null);
 
         // Assert
         Assertions.assertNotNull(actualBookings);
@@ -555,11 +661,11 @@ public class BookingServiceMockTest {
 
         Mockito.when(userService.checkUser(anyLong()))
                 .thenReturn(owner);
-        Mockito.when(bookingRepository.findAllByOwner_IdAndEndIsAfterAndStartIsBefore(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(List.of(booking1, booking2));
+        Mockito.when(bookingRepository.findBookingResponses(any(BookingFilter.class)))
+                .thenReturn(bookings);
 
         // Act
-        List<BookingResponseDto> actualBookings = bookingService.getAllBookingsByOwner("CURRENT", owner.getId(), 0, 10);
+        List<BookingResponseDto> actualBookings = bookingService.getAllBookingsByOwner("CURRENT", owner.getId(), 0, 10, null);
 
         // Assert
         Assertions.assertNotNull(actualBookings);
@@ -584,11 +690,11 @@ public class BookingServiceMockTest {
 
         Mockito.when(userService.checkUser(anyLong()))
                 .thenReturn(owner);
-        Mockito.when(bookingRepository.findAllByOwner_IdAndEndIsBefore(anyLong(), any(LocalDateTime.class)))
-                .thenReturn(List.of(booking1, booking2));
+        Mockito.when(bookingRepository.findBookingResponses(any(BookingFilter.class)))
+                .thenReturn(bookings);
 
         // Act
-        List<BookingResponseDto> actualBookings = bookingService.getAllBookingsByOwner("PAST", owner.getId(), 0, 10);
+        List<BookingResponseDto> actualBookings = bookingService.getAllBookingsByOwner("PAST", owner.getId(), 0, 10, null);
 
         // Assert
         Assertions.assertNotNull(actualBookings);
@@ -613,11 +719,11 @@ public class BookingServiceMockTest {
 
         Mockito.when(userService.checkUser(anyLong()))
                 .thenReturn(owner);
-        Mockito.when(bookingRepository.findAllByItemOwnerAndStatusOrderByStartDesc(anyLong(), anyString()))
-                .thenReturn(List.of(booking1, booking2));
+        Mockito.when(bookingRepository.findBookingResponses(any(BookingFilter.class)))
+                .thenReturn(bookings);
 
         // Act
-        List<BookingResponseDto> actualBookings = bookingService.getAllBookingsByOwner("WAITING", owner.getId(), 0, 10);
+        List<BookingResponseDto> actualBookings = bookingService.getAllBookingsByOwner("WAITING", owner.getId(), 0, 10, null);
 
         // Assert
         Assertions.assertNotNull(actualBookings);
@@ -642,11 +748,11 @@ public class BookingServiceMockTest {
 
         Mockito.when(userService.checkUser(anyLong()))
                 .thenReturn(owner);
-        Mockito.when(bookingRepository.findAllByItemOwnerAndStatusOrderByStartDesc(anyLong(), anyString()))
-                .thenReturn(List.of(booking1, booking2));
+        Mockito.when(bookingRepository.findBookingResponses(any(BookingFilter.class)))
+                .thenReturn(bookings);
 
         // Act
-        List<BookingResponseDto> actualBookings = bookingService.getAllBookingsByOwner("REJECTED", owner.getId(), 0, 10);
+        List<BookingResponseDto> actualBookings = bookingService.getAllBookingsByOwner("REJECTED", owner.getId(), 0, 10, null);
 
         // Assert
         Assertions.assertNotNull(actualBookings);
@@ -674,7 +780,7 @@ public class BookingServiceMockTest {
 
         // Act
         BadRequestException thrown = Assertions.assertThrows(BadRequestException.class, () -> {
-            List<BookingResponseDto> actualBookings = bookingService.getAllBookingsByOwner("UNSUPPORTED_STATUS", owner.getId(), 0, 10);
+            List<BookingResponseDto> actualBookings = bookingService.getAllBookingsByOwner("UNSUPPORTED_STATUS", owner.getId(), 0, 10, null);
         });
 
         // Assert
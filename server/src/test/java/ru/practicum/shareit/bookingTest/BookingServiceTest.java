@@ -0,0 +1,108 @@
+package ru.practicum.shareit.bookingTest;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingCursor;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@SpringBootTest
+@Transactional
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class BookingServiceTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void getAllBookingsByOwnerCursorTest() {
+        User owner = getTestUser("owner@");
+        User booker = getTestUser("booker@");
+        Item item = getTestItem(owner);
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        List<Long> expectedIds = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            // У пар бронирований одинаковое начало - порядок внутри пары задает ID
+            expectedIds.add(getTestBooking(item, booker, start.plusHours(i / 2)).getId());
+        }
+        expectedIds.sort((id1, id2) -> Long.compare(id2, id1));
+
+        List<Long> actualIds = new ArrayList<>();
+        BookingCursor cursor = new BookingCursor(LocalDateTime.of(9999, 1, 1, 0, 0), Long.MAX_VALUE);
+        List<BookingResponseDto> page;
+        do {
+            page = bookingService.getAllBookingsByOwner("ALL", owner.getId(), 0, 3, cursor.encode());
+            page.forEach(booking -> actualIds.add(booking.getId()));
+            if (!page.isEmpty()) {
+                BookingResponseDto last = page.get(page.size() - 1);
+                cursor = new BookingCursor(last.getStart(), last.getId());
+            }
+        } while (page.size() == 3);
+
+        Assertions.assertEquals(expectedIds, actualIds);
+    }
+
+    @Test
+    void getAllBookingsByBookerCursorStateTest() {
+        User owner = getTestUser("owner@");
+        User booker = getTestUser("booker@");
+        Item item = getTestItem(owner);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking waiting = getTestBooking(item, booker, start);
+        Booking rejected = getTestBooking(item, booker, start.plusDays(1));
+        rejected.setStatus(BookingStatus.REJECTED);
+        String cursor = new BookingCursor(start.plusYears(1), Long.MAX_VALUE).encode();
+
+        List<BookingResponseDto> result = bookingService.getAllBookingsByBooker("REJECTED", booker.getId(), 0, 10, cursor);
+
+        Assertions.assertEquals(List.of(rejected.getId()),
+                result.stream().map(BookingResponseDto::getId).collect(Collectors.toList()));
+        Assertions.assertNotEquals(waiting.getId(), result.get(0).getId());
+    }
+
+    private User getTestUser(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setName("Test User Name");
+        entityManager.persist(user);
+        return user;
+    }
+
+    private Item getTestItem(User owner) {
+        Item item = new Item();
+        item.setName("Test Item Name");
+        item.setDescription("Test Item Description");
+        item.setAvailable(Boolean.TRUE);
+        item.setOwner(owner);
+        entityManager.persist(item);
+        return item;
+    }
+
+    private Booking getTestBooking(Item item, User booker, LocalDateTime start) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStart(start);
+        booking.setEnd(start.plusMinutes(30));
+        booking.setStatus(BookingStatus.WAITING);
+        entityManager.persist(booking);
+        return booking;
+    }
+}
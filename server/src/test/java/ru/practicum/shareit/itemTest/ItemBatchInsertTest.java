@@ -0,0 +1,54 @@
+package ru.practicum.shareit.itemTest;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.dto.ItemBatchResultDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.services.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.services.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class ItemBatchInsertTest {
+
+    private static final int ITEMS = 500;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void createItemsBatchesInsertsTest() throws Exception {
+        // Assign
+        long userId = userService.createUser(new UserDto(0, "owner", "owner@email.ru")).getId();
+        List<ItemDto> itemDtos = IntStream.range(0, ITEMS)
+                .mapToObj(i -> new ItemDto(0, "Item " + i, "Description " + i, Boolean.TRUE, null))
+                .collect(Collectors.toList());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        List<ItemBatchResultDto> results = itemService.createItems(itemDtos, userId);
+
+        // Assert
+        Assertions.assertEquals(ITEMS, results.stream().filter(result -> result.getItem() != null).count());
+        Assertions.assertEquals(ITEMS, statistics.getEntityInsertCount());
+        // Вставки идут пачками по hibernate.jdbc.batch_size, а id берутся из последовательности блоками
+        Assertions.assertTrue(statistics.getPrepareStatementCount() < ITEMS / 10,
+                "prepared statements: " + statistics.getPrepareStatementCount());
+    }
+}
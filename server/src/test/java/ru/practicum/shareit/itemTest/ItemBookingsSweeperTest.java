@@ -0,0 +1,96 @@
+package ru.practicum.shareit.itemTest;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repositories.ItemStorage;
+import ru.practicum.shareit.item.services.ItemBookingsSweeper;
+import ru.practicum.shareit.item.services.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.services.UserService;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@SpringBootTest
+public class ItemBookingsSweeperTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ItemStorage itemStorage;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private long ownerId;
+
+    private long bookerId;
+
+    private long itemId;
+
+    @BeforeEach
+    void setUp() {
+        ownerId = getTestUser();
+        bookerId = getTestUser();
+        itemId = itemService.createItem(new ItemDto(0, "Item", "Description", Boolean.TRUE, null), ownerId)
+                .getId();
+    }
+
+    @Test
+    void createBookingRefreshesItemRowTest() {
+        // Assign
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+
+        // Act
+        long bookingId = createBooking(start, start.plusDays(1));
+
+        // Assert
+        Item item = itemStorage.findById(itemId).orElseThrow();
+        Assertions.assertNull(item.getLastBookingId());
+        Assertions.assertEquals(bookingId, item.getNextBookingId());
+        Assertions.assertEquals(start, item.getBookingsValidUntil());
+    }
+
+    @Test
+    void sweepRefreshesItemsPastBoundaryTest() {
+        // Assign
+        LocalDateTime start = LocalDateTime.now().minusDays(2).withNano(0);
+        long bookingId = createBooking(start, start.plusDays(1));
+        // Будто бронирование было следующим, а его начало и конец уже прошли
+        transactionTemplate.executeWithoutResult(status ->
+                itemStorage.updateBookings(itemId, null, bookingId, start));
+
+        // Act
+        new ItemBookingsSweeper(itemStorage, itemService).sweep();
+
+        // Assert
+        Item item = itemStorage.findById(itemId).orElseThrow();
+        Assertions.assertEquals(bookingId, item.getLastBookingId());
+        Assertions.assertNull(item.getNextBookingId());
+        Assertions.assertNull(item.getBookingsValidUntil());
+        Assertions.assertEquals(bookingId, itemService.findItemById(itemId, ownerId).getLastBooking().getId());
+    }
+
+    private long getTestUser() {
+        return userService.createUser(new UserDto(0, "User", UUID.randomUUID() + "@email.ru")).getId();
+    }
+
+    private long createBooking(LocalDateTime start, LocalDateTime end) {
+        return bookingService.createBooking(new BookingDto(0, itemId, bookerId, start, end, null), bookerId).getId();
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.service.BookingService;
@@ -12,6 +13,9 @@ import ru.practicum.shareit.item.comment.Comment;
 import ru.practicum.shareit.item.comment.CommentDto;
 import ru.practicum.shareit.item.comment.CommentMapper;
 import ru.practicum.shareit.item.controllers.ItemController;
+import ru.practicum.shareit.item.dto.IntervalDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemBatchResultDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemResponseDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
@@ -35,6 +39,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -78,6 +83,34 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.requestId", is(itemDto.getRequestId()), Long.class));
     }
 
+    @Test
+    public void createItemsTest() throws Exception {
+        // Assign
+        ItemDto itemDto = new ItemDto(1L, "TestName", "Description", Boolean.TRUE, null);
+        ItemDto withoutName = new ItemDto(0L, null, "Description", Boolean.TRUE, null);
+
+        when(itemService.createItems(any(), anyLong()))
+                .thenReturn(List.of(
+                        new ItemBatchResultDto(0, itemDto, null),
+                        new ItemBatchResultDto(1, null, "Name not exist - null")));
+
+        // Act
+        mvc.perform(post("/items/batch")
+                        .header("X-Sharer-User-Id", 1L)
+                        .content(objectMapper.writeValueAsString(List.of(itemDto, withoutName)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                // Assert
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$[0].index", is(0)))
+                .andExpect(jsonPath("$[0].item.id", is(itemDto.getId()), Long.class))
+                .andExpect(jsonPath("$[0].error", nullValue()))
+                .andExpect(jsonPath("$[1].index", is(1)))
+                .andExpect(jsonPath("$[1].item", nullValue()))
+                .andExpect(jsonPath("$[1].error", is("Name not exist - null")));
+    }
+
     @Test
     public void updateItemTest() throws Exception {
         // Assign
@@ -157,6 +190,56 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.comments[0].id", is(commentsDto.get(0).getId()), Long.class));
     }
 
+    @Test
+    public void findItemByIdNotModifiedTest() throws Exception {
+        // Assign
+        ItemResponseDto itemResponseDto = new ItemResponseDto(1L, "Name", "Description", true,
+                null, null, List.of());
+        when(itemService.findItemById(anyLong(), anyLong()))
+                .thenReturn(itemResponseDto);
+
+        String etag = mvc.perform(get("/items/{itemId}", 1L)
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Act
+        mvc.perform(get("/items/{itemId}", 1L)
+                        .header("X-Sharer-User-Id", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                // Assert
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void getItemAvailabilityTest() throws Exception {
+        // Assign
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2030, 1, 10, 0, 0);
+        ItemAvailabilityDto availability = new ItemAvailabilityDto(1L, from, to,
+                List.of(new IntervalDto(from, from.plusDays(2))),
+                List.of(new IntervalDto(from.plusDays(2), to)));
+
+        when(itemService.getItemAvailability(1L, 1L, from, to))
+                .thenReturn(availability);
+
+        // Act
+        mvc.perform(get("/items/1/availability")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("from", from.toString())
+                        .param("to", to.toString()))
+                // Assert
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemId", is(availability.getItemId()), Long.class))
+                .andExpect(jsonPath("$.busy[0].start", is("2030-01-01T00:00:00")))
+                .andExpect(jsonPath("$.busy[0].end", is("2030-01-03T00:00:00")))
+                .andExpect(jsonPath("$.free[0].start", is("2030-01-03T00:00:00")))
+                .andExpect(jsonPath("$.free[0].end", is("2030-01-10T00:00:00")));
+    }
+
     @Test
     public void findAllItemsByUserIdTest() throws Exception {
         // Assign
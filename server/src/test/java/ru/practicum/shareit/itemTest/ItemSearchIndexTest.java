@@ -0,0 +1,142 @@
+package ru.practicum.shareit.itemTest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.repositories.ItemStorage;
+import ru.practicum.shareit.item.services.ItemSearchIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchIndexTest {
+
+    @Mock
+    private ItemStorage itemStorage;
+
+    private ItemSearchIndex itemSearchIndex;
+
+    @BeforeEach
+    void init() {
+        Mockito.when(itemStorage.findAllItemDtos())
+                .thenReturn(List.of(
+                        new ItemDto(1L, "Дрель", "Аккумуляторная дрель", true, null),
+                        new ItemDto(2L, "Отвёртка", "Удобнее, чем дрель", true, null),
+                        new ItemDto(3L, "Дрель ударная", "В ремонте", false, null),
+                        new ItemDto(4L, "Пила", "Ножовка по дереву", true, 1L)));
+        itemSearchIndex = new ItemSearchIndex(itemStorage);
+        itemSearchIndex.rebuild();
+    }
+
+    @Test
+    void searchMatchesSubstringIgnoringCaseTest() {
+        assertThat(ids(itemSearchIndex.search("ДРЕЛ", 0, 10))).containsExactly(1L, 2L);
+        assertThat(ids(itemSearchIndex.search("умулятор", 0, 10))).containsExactly(1L);
+        assertThat(ids(itemSearchIndex.search("ка по де", 0, 10))).containsExactly(4L);
+        assertThat(itemSearchIndex.search("дрельщик", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void searchShortTextScansAllItemsTest() {
+        assertThat(ids(itemSearchIndex.search("пи", 0, 10))).containsExactly(4L);
+        assertThat(ids(itemSearchIndex.search("а", 0, 10))).containsExactly(2L, 4L, 1L);
+    }
+
+    @Test
+    void searchPagesResultsTest() {
+        assertThat(ids(itemSearchIndex.search("дрель", 1, 10))).containsExactly(2L);
+        assertThat(itemSearchIndex.search("дрель", 2, 10)).isEmpty();
+    }
+
+    @Test
+    void putAndRemoveUpdateIndexTest() {
+        itemSearchIndex.put(new ItemDto(3L, "Дрель ударная", "Починили", true, null));
+        itemSearchIndex.put(new ItemDto(1L, "Шуруповёрт", "Аккумуляторный", true, null));
+        itemSearchIndex.remove(2L);
+
+        assertThat(ids(itemSearchIndex.search("дрель", 0, 10))).containsExactly(3L);
+        assertThat(ids(itemSearchIndex.search("шуруп", 0, 10))).containsExactly(1L);
+    }
+
+    @Test
+    void changesInTransactionApplyAfterCommitTest() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            itemSearchIndex.put(new ItemDto(5L, "Дрель-миксер", "Новая", true, null));
+            itemSearchIndex.remove(1L);
+
+            assertThat(ids(itemSearchIndex.search("дрель", 0, 10))).containsExactly(1L, 2L);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            assertThat(ids(itemSearchIndex.search("дрель", 0, 10))).containsExactlyInAnyOrder(2L, 5L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void changesInRolledBackTransactionAreDroppedTest() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            itemSearchIndex.put(new ItemDto(5L, "Дрель-миксер", "Новая", true, null));
+            itemSearchIndex.remove(1L);
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(ids(itemSearchIndex.search("дрель", 0, 10))).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void removeOwnerDropsOwnerItemsTest() {
+        Mockito.when(itemStorage.findIdsByOwnerId(7L)).thenReturn(List.of(1L, 4L));
+
+        itemSearchIndex.removeOwner(7L);
+
+        assertThat(ids(itemSearchIndex.search("дрель", 0, 10))).containsExactly(2L);
+        assertThat(itemSearchIndex.search("пила", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void disabledIndexIsNeverReadyTest() {
+        ItemSearchIndex disabled = new ItemSearchIndex(itemStorage, false);
+
+        disabled.rebuild();
+        disabled.put(new ItemDto(5L, "Дрель-миксер", "Новая", true, null));
+        disabled.removeOwner(7L);
+
+        assertThat(disabled.isReady()).isFalse();
+        Mockito.verify(itemStorage, Mockito.times(1)).findAllItemDtos();
+        Mockito.verify(itemStorage, Mockito.never()).findIdsByOwnerId(7L);
+    }
+
+    @Test
+    void compactionKeepsLiveItemsTest() {
+        for (int i = 0; i < 3000; i++) {
+            itemSearchIndex.put(new ItemDto(100L + i % 10, "Молоток " + i, "Описание", true, null));
+        }
+
+        List<ItemDto> items = itemSearchIndex.search("молоток", 0, 100);
+        assertThat(ids(items)).hasSize(10);
+        assertThat(items.stream().map(ItemDto::getName).collect(Collectors.toList()))
+                .allMatch(name -> Integer.parseInt(name.substring("Молоток ".length())) >= 2990);
+    }
+
+    private static List<Long> ids(List<ItemDto> items) {
+        return items.stream().map(ItemDto::getId).collect(Collectors.toCollection(ArrayList::new));
+    }
+}
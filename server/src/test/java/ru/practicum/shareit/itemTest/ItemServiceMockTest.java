@@ -7,9 +7,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repositories.BookingStorage;
 import ru.practicum.shareit.exception.BadRequestException;
@@ -18,12 +21,15 @@ import ru.practicum.shareit.item.comment.Comment;
 import ru.practicum.shareit.item.comment.CommentDto;
 import ru.practicum.shareit.item.comment.CommentMapper;
 import ru.practicum.shareit.item.comment.CommentStorage;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemBatchResultDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemResponseDto;
 import ru.practicum.shareit.item.exceptions.ItemNotFound;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repositories.ItemStorage;
+import ru.practicum.shareit.item.services.ItemSearchIndex;
 import ru.practicum.shareit.item.services.ItemServiceImpl;
 import ru.practicum.shareit.request.model.entity.ItemRequest;
 import ru.practicum.shareit.request.repositories.RequestStorage;
@@ -35,6 +41,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
@@ -58,6 +65,9 @@ public class ItemServiceMockTest {
     @Mock
     private RequestStorage requestStorage;
 
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+
     private ItemServiceImpl itemService;
 
     @BeforeEach
@@ -68,7 +78,9 @@ public class ItemServiceMockTest {
                 userService,
                 bookingStorage,
                 commentStorage,
-                requestStorage);
+                requestStorage,
+                itemSearchIndex,
+                new ConcurrentMapCacheManager(ItemServiceImpl.ITEMS_CACHE, ItemServiceImpl.ITEM_BOOKINGS_CACHE));
     }
 
     @Test
@@ -87,6 +99,40 @@ public class ItemServiceMockTest {
         // Строки в сравнениях либо вынести в константы, либо брать из тестовой DTO. Написал их здесь для наглядности
     }
 
+    @Test
+    public void createItemsTest() throws Exception {
+        // Assign
+        ItemDto withRequest = getTestItemDto();
+        ItemDto withoutName = getTestItemDto();
+        withoutName.setName(null);
+        ItemDto unknownRequest = getTestItemDto();
+        unknownRequest.setRequestId(2L);
+        ItemDto withoutRequest = getTestItemDto();
+        withoutRequest.setRequestId(null);
+
+        Mockito.when(userService.checkUser(anyLong()))
+                .thenReturn(getTestUser());
+        Mockito.when(requestStorage.findAllById(anyIterable())) // Все запросы пакета ищутся одним вызовом
+                .thenReturn(List.of(getTestOptionalItemRequest().get()));
+
+        // Act
+        List<ItemBatchResultDto> results = itemService.createItems(
+                List.of(withRequest, withoutName, unknownRequest, withoutRequest), 1L);
+
+        // Assert
+        assertEquals(4, results.size());
+        assertEquals("TestName", results.get(0).getItem().getName());
+        assertEquals(1L, results.get(0).getItem().getRequestId());
+        assertEquals("Name not exist - null", results.get(1).getError());
+        assertEquals("ItemRequest with ID: 2 not found", results.get(2).getError());
+        assertEquals(0L, results.get(3).getItem().getRequestId());
+        Mockito.verify(userService, Mockito.times(1)).checkUser(1L);
+        Mockito.verify(requestStorage, Mockito.never()).findById(anyLong());
+        Mockito.verify(itemStorage, Mockito.times(1))
+                .saveAll(Mockito.<Iterable<Item>>argThat(items -> items.spliterator().getExactSizeIfKnown() == 2));
+        Mockito.verify(itemStorage, Mockito.never()).save(any(Item.class));
+    }
+
     @Test
     public void createItemErrorNullRequestTest() {
         // Assign
@@ -250,6 +296,7 @@ public class ItemServiceMockTest {
 
         // Assert
         Mockito.verify(itemStorage, Mockito.times(1)).delete(item.get());
+        Mockito.verify(itemSearchIndex, Mockito.times(1)).remove(item.get().getId());
     }
 
     @Test
@@ -277,14 +324,15 @@ public class ItemServiceMockTest {
         Comment comment1 = getTestComment(item1, user);
         List<Comment> comments = List.of(comment1);
         ItemResponseDto itemResponseDto = ItemMapper.toItemResponseDto(item1, booking1, null, CommentMapper.toCommentDtos(comments));
+        item1.setLastBookingId(booking1.getId());
 
         Mockito.when(itemStorage.findById(anyLong())).thenReturn(Optional.of(item1));
         Mockito.when(userService.checkUser(user.getId()))
                 .thenReturn(user);
         Mockito.when(commentStorage.getCommentsByItem_idOrderByCreatedDesc(item1.getId()))
                 .thenReturn(comments);
-        Mockito.when(bookingStorage.findFirstByItem_idAndEndBeforeOrderByEndDesc(anyLong(), any(LocalDateTime.class))).thenReturn(booking1);
-        Mockito.when(bookingStorage.findFirstByItem_idAndStartAfterOrderByStartDesc(anyLong(), any(LocalDateTime.class))).thenReturn(null);
+        Mockito.when(bookingStorage.findAllBookingDtosByIds(anyCollection()))
+                .thenReturn(List.of(BookingMapper.toBookingDto(booking1)));
 
 
         // Act
@@ -317,14 +365,16 @@ public class ItemServiceMockTest {
         ItemResponseDto itemResponseDto1 = ItemMapper.toItemResponseDto(item1, booking1, null, CommentMapper.toCommentDtos(comments));
         ItemResponseDto itemResponseDto2 = ItemMapper.toItemResponseDto(item2, booking2, null, new ArrayList<>());
         List<ItemResponseDto> itemsDtos = List.of(itemResponseDto1, itemResponseDto2);
+        item1.setLastBookingId(booking1.getId());
+        item2.setLastBookingId(booking2.getId());
 
         Mockito.when(userService.checkUser(anyLong())).thenReturn(user);
         Mockito.when(itemStorage.findAllByOwnerIdOrderByIdAsc(anyLong(), any(PageRequest.class)))
                 .thenReturn(new PageImpl<>(items));
-        Mockito.when(commentStorage.getCommentsByItem_idOrderByCreatedDesc(item1.getId()))
-                .thenReturn(comments);
-        Mockito.when(bookingStorage.findFirstByItem_idAndEndBeforeOrderByEndDesc(anyLong(), any(LocalDateTime.class))).thenReturn(booking1);
-        Mockito.when(bookingStorage.findFirstByItem_idAndStartAfterOrderByStartDesc(anyLong(), any(LocalDateTime.class))).thenReturn(null);
+        Mockito.when(commentStorage.findAllByItemIdsOrderByCreatedDesc(anyCollection()))
+                .thenReturn(CommentMapper.toCommentDtos(comments));
+        Mockito.when(bookingStorage.findAllBookingDtosByIds(anyCollection()))
+                .thenReturn(List.of(BookingMapper.toBookingDto(booking1), BookingMapper.toBookingDto(booking2)));
 
         // Act
         List<ItemResponseDto> actualItemDtos = itemService.findAllItemsByUserId(user.getId(), 0, 10);
@@ -332,6 +382,140 @@ public class ItemServiceMockTest {
         // Assert
         Assertions.assertNotNull(actualItemDtos);
         Assertions.assertEquals(actualItemDtos.size(), itemsDtos.size());
+        Assertions.assertEquals(actualItemDtos.get(0).getLastBooking().getId(), booking1.getId());
+        Assertions.assertEquals(actualItemDtos.get(1).getLastBooking().getId(), booking2.getId());
+        Assertions.assertNull(actualItemDtos.get(0).getNextBooking());
+        Assertions.assertEquals(actualItemDtos.get(0).getComments().size(), 1);
+        Assertions.assertTrue(actualItemDtos.get(1).getComments().isEmpty());
+        Mockito.verify(bookingStorage, Mockito.never())
+                .findLastBookingsByItemIds(anyCollection(), any(LocalDateTime.class));
+        Mockito.verify(commentStorage, Mockito.never()).getCommentsByItem_idOrderByCreatedDesc(anyLong());
+    }
+
+    @Test
+    public void findAllItemsByUserIdStaleBookingsTest() {
+        // Assign
+        Item item1 = getTestOptionalItem().get();
+        Item item2 = getTestOptionalItem().get();
+        item2.setId(2L);
+        User user = getTestUser();
+        Booking booking1 = getTestBooking(user, item1);
+        Booking booking2 = getTestBooking(user, item2);
+        booking2.setId(2L);
+        item1.setLastBookingId(booking1.getId());
+        // Граница у второй вещи уже наступила, а планировщик строку ещё не пересчитал
+        item2.setNextBookingId(booking2.getId());
+        item2.setBookingsValidUntil(LocalDateTime.now().minusSeconds(1));
+
+        Mockito.when(userService.checkUser(anyLong())).thenReturn(user);
+        Mockito.when(itemStorage.findAllByOwnerIdOrderByIdAsc(anyLong(), any(PageRequest.class)))
+                .thenReturn(new PageImpl<>(List.of(item1, item2)));
+        Mockito.when(bookingStorage.findAllBookingDtosByIds(anyCollection()))
+                .thenReturn(List.of(BookingMapper.toBookingDto(booking1)));
+        Mockito.when(bookingStorage.findLastBookingsByItemIds(anyCollection(), any(LocalDateTime.class)))
+                .thenReturn(List.of(BookingMapper.toBookingDto(booking2)));
+
+        // Act
+        List<ItemResponseDto> actualItemDtos = itemService.findAllItemsByUserId(user.getId(), 0, 10);
+
+        // Assert
+        Assertions.assertEquals(booking1.getId(), actualItemDtos.get(0).getLastBooking().getId());
+        Assertions.assertEquals(booking2.getId(), actualItemDtos.get(1).getLastBooking().getId());
+        Assertions.assertNull(actualItemDtos.get(1).getNextBooking());
+        Mockito.verify(bookingStorage).findAllBookingDtosByIds(Set.of(booking1.getId()));
+        Mockito.verify(bookingStorage).findLastBookingsByItemIds(eq(List.of(item2.getId())), any(LocalDateTime.class));
+    }
+
+    @Test
+    public void findItemByIdServedFromCacheTest() {
+        // Assign
+        Item item = getTestOptionalItem().get();
+        User owner = item.getOwner();
+        Booking booking = getTestBooking(getTestUser(), item);
+        item.setLastBookingId(booking.getId());
+
+        Mockito.when(itemStorage.findById(item.getId())).thenReturn(Optional.of(item));
+        Mockito.when(userService.checkUser(owner.getId())).thenReturn(owner);
+        Mockito.when(commentStorage.getCommentsByItem_idOrderByCreatedDesc(item.getId())).thenReturn(List.of());
+        Mockito.when(bookingStorage.findAllBookingDtosByIds(anyCollection()))
+                .thenReturn(List.of(BookingMapper.toBookingDto(booking)));
+
+        // Act
+        itemService.findItemById(item.getId(), owner.getId());
+        ItemResponseDto cached = itemService.findItemById(item.getId(), owner.getId());
+
+        // Assert
+        Assertions.assertEquals(booking.getId(), cached.getLastBooking().getId());
+        // Детали и бронирования кэшируются отдельно, вещь читается для каждого из них только при первом запросе
+        Mockito.verify(itemStorage, Mockito.times(2)).findById(item.getId());
+        Mockito.verify(commentStorage, Mockito.times(1)).getCommentsByItem_idOrderByCreatedDesc(item.getId());
+        Mockito.verify(bookingStorage, Mockito.times(1)).findAllBookingDtosByIds(anyCollection());
+    }
+
+    @Test
+    public void findItemByIdReloadsRefreshedBookingsTest() {
+        // Assign
+        Item item = getTestOptionalItem().get();
+        User owner = item.getOwner();
+        Booking booking = getTestBooking(getTestUser(), item);
+
+        Mockito.when(itemStorage.findById(item.getId())).thenReturn(Optional.of(item));
+        Mockito.when(itemStorage.findByIdForUpdate(item.getId())).thenReturn(Optional.of(item));
+        Mockito.when(userService.checkUser(owner.getId())).thenReturn(owner);
+        Mockito.when(bookingStorage.findFirstByItem_idAndEndBeforeOrderByEndDesc(anyLong(), any(LocalDateTime.class)))
+                .thenReturn(booking);
+
+        // Act
+        itemService.findItemById(item.getId(), owner.getId());
+        itemService.refreshItemBookings(item.getId());
+        itemService.findItemById(item.getId(), owner.getId());
+
+        // Assert
+        Mockito.verify(itemStorage).updateBookings(item.getId(), booking.getId(), null, null);
+        // Детали остались в кэше, бронирования перечитаны из строки вещи
+        Mockito.verify(itemStorage, Mockito.times(3)).findById(item.getId());
+    }
+
+    @Test
+    public void refreshItemBookingsValidUntilNextStartTest() {
+        // Assign
+        Item item = getTestOptionalItem().get();
+        Booking next = getTestBooking(getTestUser(), item);
+        next.setStart(LocalDateTime.now().plusDays(1));
+        LocalDateTime currentEnd = LocalDateTime.now().plusDays(2);
+
+        Mockito.when(itemStorage.findByIdForUpdate(item.getId())).thenReturn(Optional.of(item));
+        Mockito.when(bookingStorage.findFirstByItem_idAndStartAfterOrderByStartDesc(anyLong(), any(LocalDateTime.class)))
+                .thenReturn(next);
+        Mockito.when(bookingStorage.findNearestEndAfter(anyLong(), any(LocalDateTime.class)))
+                .thenReturn(currentEnd);
+
+        // Act
+        itemService.refreshItemBookings(item.getId());
+
+        // Assert
+        Mockito.verify(itemStorage).updateBookings(item.getId(), null, next.getId(), next.getStart());
+    }
+
+    @Test
+    public void findItemByIdReloadsExpiredBookingsTest() {
+        // Assign
+        Item item = getTestOptionalItem().get();
+        User owner = item.getOwner();
+
+        // Текущее бронирование уже закончилось, а планировщик строку ещё не пересчитал
+        item.setBookingsValidUntil(LocalDateTime.now().minusSeconds(1));
+
+        Mockito.when(itemStorage.findById(item.getId())).thenReturn(Optional.of(item));
+        Mockito.when(userService.checkUser(owner.getId())).thenReturn(owner);
+
+        // Act
+        itemService.findItemById(item.getId(), owner.getId());
+        itemService.findItemById(item.getId(), owner.getId());
+
+        // Assert
+        Mockito.verify(bookingStorage, Mockito.times(2))
+                .findLastBookingsByItemIds(anyCollection(), any(LocalDateTime.class));
     }
 
     @Test
@@ -343,8 +527,8 @@ public class ItemServiceMockTest {
         item2.setName("Search");
         List<Item> items = List.of(item1, item2);
 
-        Mockito.when(itemStorage.findAllByNameAndDescriptionLowerCase(anyString(), anyString(), any(PageRequest.class)))
-                .thenReturn(new PageImpl<>(items));
+        Mockito.when(itemStorage.searchAvailable(anyString(), any(PageRequest.class)))
+                .thenReturn(items);
 
         // Act
         List<ItemDto> actualItems = itemService.searchItemsByNameAndDescription("search", 0, 10);
@@ -352,6 +536,42 @@ public class ItemServiceMockTest {
         // Assert
         Assertions.assertNotNull(actualItems);
         Assertions.assertEquals(items.size(), actualItems.size());
+        Mockito.verify(itemStorage, Mockito.never()).searchAvailableByLike(anyString(), any(PageRequest.class));
+    }
+
+    @Test
+    public void searchItemsByNameAndDescriptionWhileIndexBuildsTest() {
+        // Assign
+        Item item = getTestOptionalItem().get();
+        Mockito.when(itemSearchIndex.isEnabled())
+                .thenReturn(true);
+        Mockito.when(itemStorage.searchAvailableByLike("search", PageRequest.of(2, 10)))
+                .thenReturn(List.of(item));
+
+        // Act
+        List<ItemDto> actualItems = itemService.searchItemsByNameAndDescription("search", 2, 10);
+
+        // Assert
+        Assertions.assertEquals(1, actualItems.size());
+        Assertions.assertEquals(item.getId(), actualItems.get(0).getId());
+        Mockito.verify(itemStorage, Mockito.never()).searchAvailable(anyString(), any(PageRequest.class));
+    }
+
+    @Test
+    public void searchItemsByNameAndDescriptionFromIndexTest() {
+        // Assign
+        List<ItemDto> items = List.of(new ItemDto(1L, "Search", "description", true, null));
+        Mockito.when(itemSearchIndex.isReady())
+                .thenReturn(true);
+        Mockito.when(itemSearchIndex.search("search", 20, 10))
+                .thenReturn(items);
+
+        // Act
+        List<ItemDto> actualItems = itemService.searchItemsByNameAndDescription("search", 2, 10);
+
+        // Assert
+        Assertions.assertEquals(items, actualItems);
+        Mockito.verify(itemStorage, Mockito.never()).searchAvailable(anyString(), any(PageRequest.class));
     }
 
     @Test
@@ -508,6 +728,59 @@ public class ItemServiceMockTest {
         Assertions.assertEquals(comments.size(), actualCommentDtos.size());
     }
 
+    @Test
+    public void getItemAvailabilityTest() {
+        // Assign
+        Item item = getTestOptionalItem().get();
+        User booker = getTestUser();
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2030, 1, 10, 0, 0);
+        Booking booking1 = getTestBooking(booker, item);
+        booking1.setStart(from.minusDays(1));
+        booking1.setEnd(from.plusDays(2));
+        Booking booking2 = getTestBooking(booker, item);
+        booking2.setStart(from.plusDays(1));
+        booking2.setEnd(from.plusDays(3));
+        Booking booking3 = getTestBooking(booker, item);
+        booking3.setStart(from.plusDays(5));
+        booking3.setEnd(to.plusDays(1));
+        List<BookingDto> bookings = List.of(BookingMapper.toBookingDto(booking1),
+                BookingMapper.toBookingDto(booking2),
+                BookingMapper.toBookingDto(booking3));
+
+        Mockito.when(itemStorage.findById(anyLong()))
+                .thenReturn(Optional.of(item));
+        Mockito.when(bookingStorage.findAllByItemIdAndStatusBetween(item.getId(), BookingStatus.APPROVED, from, to))
+                .thenReturn(bookings);
+
+        // Act
+        ItemAvailabilityDto availability = itemService.getItemAvailability(item.getId(), booker.getId(), from, to);
+
+        // Assert
+        Assertions.assertEquals(2, availability.getBusy().size());
+        Assertions.assertEquals(from, availability.getBusy().get(0).getStart());
+        Assertions.assertEquals(from.plusDays(3), availability.getBusy().get(0).getEnd());
+        Assertions.assertEquals(from.plusDays(5), availability.getBusy().get(1).getStart());
+        Assertions.assertEquals(to, availability.getBusy().get(1).getEnd());
+        Assertions.assertEquals(1, availability.getFree().size());
+        Assertions.assertEquals(from.plusDays(3), availability.getFree().get(0).getStart());
+        Assertions.assertEquals(from.plusDays(5), availability.getFree().get(0).getEnd());
+    }
+
+    @Test
+    public void getItemAvailabilityErrorWrongTimeTest() {
+        // Assign
+        LocalDateTime from = LocalDateTime.now();
+
+        // Act
+        BadRequestException thrown = Assertions.assertThrows(BadRequestException.class, () -> {
+            itemService.getItemAvailability(1L, 1L, from, from.minusDays(1));
+        });
+
+        // Assert
+        assertEquals(thrown.getMessage(), "Availability wrong Time");
+    }
+
     private User getTestUser() {
         User user = new User();
         user.setId(1L);
@@ -4,6 +4,10 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.enums.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.comment.Comment;
 import ru.practicum.shareit.item.dto.ItemResponseDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.services.ItemService;
@@ -13,9 +17,11 @@ import ru.practicum.shareit.user.model.User;
 import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @SpringBootTest
 @Transactional
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
 public class ItemServiceTest {
 
     @Autowired
@@ -45,6 +51,42 @@ public class ItemServiceTest {
         Assertions.assertEquals(itemResponseDto.getDescription(), item1.getDescription());
     }
 
+    @Test
+    void findAllItemsByUserIdTest() {
+        User owner = getTestUser("owner@");
+        User booker = getTestUser("booker@");
+        Item item1 = getTestItem(owner, null);
+        Item item2 = getTestItem(owner, null);
+        Item item3 = getTestItem(owner, null);
+        Booking oldBooking = getTestBooking(item1, booker,
+                LocalDateTime.now().minusDays(5), LocalDateTime.now().minusDays(4));
+        Booking lastBooking = getTestBooking(item1, booker,
+                LocalDateTime.now().minusDays(3), LocalDateTime.now().minusDays(2));
+        Booking nextBooking = getTestBooking(item2, booker,
+                LocalDateTime.now().plusDays(2), LocalDateTime.now().plusDays(3));
+        getTestComment(item1, booker);
+        // Бронирования записаны мимо сервиса - пересчитываем строки вещей, как это делают их изменения
+        List.of(item1, item2, item3).forEach(item -> itemService.refreshItemBookings(item.getId()));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<ItemResponseDto> result = itemService.findAllItemsByUserId(owner.getId(), 0, 10);
+
+        Assertions.assertEquals(3, result.size());
+        Assertions.assertEquals(item1.getId(), result.get(0).getId());
+        Assertions.assertEquals(lastBooking.getId(), result.get(0).getLastBooking().getId());
+        Assertions.assertNotEquals(oldBooking.getId(), result.get(0).getLastBooking().getId());
+        Assertions.assertNull(result.get(0).getNextBooking());
+        Assertions.assertEquals(1, result.get(0).getComments().size());
+        Assertions.assertEquals(booker.getName(), result.get(0).getComments().get(0).getAuthorName());
+        Assertions.assertNull(result.get(1).getLastBooking());
+        Assertions.assertEquals(nextBooking.getId(), result.get(1).getNextBooking().getId());
+        Assertions.assertTrue(result.get(1).getComments().isEmpty());
+        Assertions.assertEquals(item3.getId(), result.get(2).getId());
+        Assertions.assertNull(result.get(2).getLastBooking());
+        Assertions.assertNull(result.get(2).getNextBooking());
+    }
+
     User getTestUser(String email) {
         User user = new User();
         user.setEmail(email);
@@ -72,4 +114,24 @@ public class ItemServiceTest {
         entityManager.persist(item);
         return item;
     }
+
+    Booking getTestBooking(Item item, User booker, LocalDateTime start, LocalDateTime end) {
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setBooker(booker);
+        booking.setStart(start);
+        booking.setEnd(end);
+        booking.setStatus(BookingStatus.APPROVED);
+        entityManager.persist(booking);
+        return booking;
+    }
+
+    Comment getTestComment(Item item, User author) {
+        Comment comment = new Comment();
+        comment.setItem(item);
+        comment.setAuthor(author);
+        comment.setText("Comment");
+        entityManager.persist(comment);
+        return comment;
+    }
 }
@@ -74,11 +74,62 @@ class ItemStorageTest {
         testEntityManager.persist(item2);
         testEntityManager.persist(item3);
 
-        Page<Item> items = itemStorage.findAllByNameAndDescriptionLowerCase(
-                "name1", "description1", PageRequest.of(0, 100));
+        List<Item> items = itemStorage.searchAvailable("name1", PageRequest.of(0, 100));
         assertThat(items).hasSize(2);
     }
 
+    @Test
+    void testSearchAvailableRanksNameMatchesFirst() {
+        User user = new User();
+        user.setName("user7");
+        user.setEmail("user7@email.ru");
+        testEntityManager.persist(user);
+
+        Item byDescription = new Item();
+        byDescription.setName("Отвёртка");
+        byDescription.setDescription("Удобнее, чем дрель");
+        byDescription.setOwner(user);
+        byDescription.setAvailable(true);
+
+        Item byName = new Item();
+        byName.setName("Дрель");
+        byName.setDescription("Аккумуляторная");
+        byName.setOwner(user);
+        byName.setAvailable(true);
+
+        Item unavailable = new Item();
+        unavailable.setName("Дрель ударная");
+        unavailable.setDescription("В ремонте");
+        unavailable.setOwner(user);
+        unavailable.setAvailable(false);
+
+        testEntityManager.persist(byDescription);
+        testEntityManager.persist(byName);
+        testEntityManager.persist(unavailable);
+
+        List<Item> items = itemStorage.searchAvailable("ДРЕЛЬ", PageRequest.of(0, 100));
+        assertThat(items).containsExactly(byName, byDescription);
+    }
+
+    @Test
+    void testSearchAvailableByLikeMatchesSubstring() {
+        User user = new User();
+        user.setName("user8");
+        user.setEmail("user8@email.ru");
+        testEntityManager.persist(user);
+
+        Item item = new Item();
+        item.setName("Дрель");
+        item.setDescription("Аккумуляторная");
+        item.setOwner(user);
+        item.setAvailable(true);
+        testEntityManager.persist(item);
+
+        // Середина слова, как в индексе; полнотекстовый поиск Postgres ищет только по началу слов
+        assertThat(itemStorage.searchAvailableByLike("рел", PageRequest.of(0, 100))).containsExactly(item);
+        assertThat(itemStorage.searchAvailableByLike("умулятор", PageRequest.of(0, 100))).containsExactly(item);
+    }
+
     @Test
     void testFindAllByOwnerIdOrderById() {
         User user3 = new User();
@@ -129,7 +180,7 @@ class ItemStorageTest {
         testEntityManager.persist(item2);
         testEntityManager.persist(item3);
 
-        Page<Item> items = itemStorage.findAllByOwnerIdOrderByIdAsc(3L, PageRequest.of(0, 100));
+        Page<Item> items = itemStorage.findAllByOwnerIdOrderByIdAsc(user3.getId(), PageRequest.of(0, 100));
         assertThat(items).hasSize(2);
     }
 
@@ -183,7 +234,7 @@ class ItemStorageTest {
         testEntityManager.persist(item2);
         testEntityManager.persist(item3);
 
-        List<Item> items = itemStorage.findAllByRequest_IdOrderByRequestIdDesc(1L);
+        List<Item> items = itemStorage.findAllByRequest_IdOrderByRequestIdDesc(itemRequest1.getId());
         assertThat(items).hasSize(2);
     }
 
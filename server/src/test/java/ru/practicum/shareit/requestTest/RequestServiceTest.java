@@ -1,5 +1,7 @@
 package ru.practicum.shareit.requestTest;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,13 +14,14 @@ import ru.practicum.shareit.request.model.dto.RequestWithResponseDto;
 import ru.practicum.shareit.request.model.entity.ItemRequest;
 import ru.practicum.shareit.request.service.RequestService;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.services.UserService;
 
 import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
 
-@SpringBootTest
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @Transactional
 @DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
 // Очищаем контекст между тестовыми методами
@@ -33,6 +36,9 @@ public class RequestServiceTest {
     @Autowired
     private ItemStorage itemStorage;
 
+    @Autowired
+    private UserService userService;
+
     @Test
     public void getAllResponsesForAllRequestsTest() {
         User owner = getTestUser("1@.ru");
@@ -86,6 +92,38 @@ public class RequestServiceTest {
         }
     }
 
+    @Test
+    public void getAllResponsesForAllRequestsStatementCountTest() {
+        User owner = getTestUser("1@.ru");
+        User requestor = getTestUser("2@.ru");
+        for (int i = 0; i < 500; i++) {
+            ItemRequest itemRequest = getTestItemRequest(requestor);
+            getTestItem(owner, itemRequest);
+            getTestItem(owner, itemRequest);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        // Прогрев кэша пользователей, чтобы оба замера шли в одинаковых условиях
+        userService.checkUser(requestor.getId());
+        entityManager.clear();
+
+        statistics.clear();
+        List<RequestWithResponseDto> firstPage = requestService.getAllResponsesForAllRequests(requestor.getId(), 0, 1);
+        long firstPageStatements = statistics.getPrepareStatementCount();
+        entityManager.clear();
+        statistics.clear();
+        List<RequestWithResponseDto> fullPage = requestService.getAllResponsesForAllRequests(requestor.getId(), 0, 500);
+        long fullPageStatements = statistics.getPrepareStatementCount();
+
+        Assertions.assertEquals(1, firstPage.size());
+        Assertions.assertEquals(500, fullPage.size());
+        Assertions.assertTrue(fullPage.stream().allMatch(request -> request.getItems().size() == 2));
+        Assertions.assertEquals(firstPageStatements, fullPageStatements);
+    }
+
     private ItemRequest getTestItemRequest(User user) {
         ItemRequest itemRequest = new ItemRequest();
         // Не сетим id
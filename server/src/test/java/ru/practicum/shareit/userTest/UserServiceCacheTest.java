@@ -0,0 +1,76 @@
+package ru.practicum.shareit.userTest;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.services.UserService;
+import ru.practicum.shareit.user.services.UserServiceImpl;
+
+import javax.persistence.EntityManagerFactory;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class UserServiceCacheTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void init() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    public void checkUserHitsDatabaseOnceTest() {
+        long userId = userService.createUser(new UserDto(0, "user", "user@email.ru")).getId();
+        statistics.clear();
+
+        userService.checkUser(userId);
+        userService.checkUser(userId);
+        userService.checkUser(userId);
+
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+        FunctionCounter hits = meterRegistry.find("cache.gets")
+                .tags("cache", UserServiceImpl.USERS_CACHE, "result", "hit")
+                .functionCounter();
+        Assertions.assertNotNull(hits);
+        Assertions.assertEquals(2, hits.count());
+    }
+
+    @Test
+    public void updateUserEvictsCachedUserTest() {
+        long userId = userService.createUser(new UserDto(0, "user", "user@email.ru")).getId();
+        userService.checkUser(userId);
+
+        userService.updateUser(new UserDto(0, "renamed", null), userId);
+
+        Assertions.assertEquals("renamed", userService.checkUser(userId).getName());
+    }
+
+    @Test
+    public void deleteUserEvictsCachedUserTest() {
+        long userId = userService.createUser(new UserDto(0, "user", "user@email.ru")).getId();
+        userService.checkUser(userId);
+
+        userService.deleteUser(userId);
+
+        Assertions.assertThrows(NotFoundException.class, () -> userService.checkUser(userId));
+    }
+}
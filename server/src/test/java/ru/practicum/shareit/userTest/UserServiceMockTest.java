@@ -7,7 +7,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.item.services.ItemSearchIndex;
+import ru.practicum.shareit.item.services.ItemServiceImpl;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repositories.UserStorage;
@@ -27,12 +34,19 @@ public class UserServiceMockTest {
 
     private UserServiceImpl userService;
 
+    private CacheManager cacheManager;
+
     @Mock
     private UserStorage userStorage;
 
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+
     @BeforeEach
     void setUp() {
-        userService = new UserServiceImpl(userStorage);
+        cacheManager = new ConcurrentMapCacheManager(
+                UserServiceImpl.USERS_CACHE, ItemServiceImpl.ITEMS_CACHE, ItemServiceImpl.ITEM_BOOKINGS_CACHE);
+        userService = new UserServiceImpl(userStorage, itemSearchIndex, cacheManager);
     }
 
     @Test
@@ -93,6 +107,34 @@ public class UserServiceMockTest {
         assertEquals(userDto.getEmail(), result.getEmail());
     }
 
+    @Test
+    public void updateUserEvictsCachesAgainAfterCommitTest() throws Exception {
+        // Assign
+        var user = getTestUser();
+        Cache users = cacheManager.getCache(UserServiceImpl.USERS_CACHE);
+        Cache items = cacheManager.getCache(ItemServiceImpl.ITEMS_CACHE);
+        users.put(user.getId(), user);
+
+        when(userStorage.findById(anyLong())).thenReturn(Optional.of(user));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            userService.updateUser(getTestUserDto(), user.getId());
+            Assertions.assertNull(users.get(user.getId()));
+            // Параллельное чтение до коммита кладёт в кэш старые данные
+            users.put(user.getId(), user);
+            items.put(1L, "stale");
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        Assertions.assertNull(users.get(user.getId()));
+        Assertions.assertNull(items.get(1L));
+    }
+
     @Test
     public void deleteUserTest() throws Exception {
         // Assign
@@ -104,6 +146,7 @@ public class UserServiceMockTest {
         userService.deleteUser(user.getId());
 
         // Assert
+        Mockito.verify(itemSearchIndex, Mockito.times(1)).removeOwner(user.getId());
         Mockito.verify(userStorage, Mockito.times(1)).delete(user);
     }
 